@@ -0,0 +1,435 @@
+package org.example;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Bulk export of listings, with computed total price, average sqm per room and room price, to CSV or to a
+ * typed binary columnar file. Rows are gathered into a reusable chunk and encoded into one reusable direct
+ * ByteBuffer that is written through a FileChannel, so no objects are created per row (except for new cities).
+ * An exporter can be reused for many exports but must not be shared between threads.
+ * <p>
+ * Room price is the base price per room (price per sqm * sqm / rooms, rounded), as Panel.roomprice()
+ * computes it, for every kind of listing.
+ * <p>
+ * Columnar layout (little-endian): magic "REXC", int version, int column count, then per column a type byte
+ * and its name (short length + UTF-8). Then row groups: int row count, int number of new cities followed by
+ * each new city (int length + UTF-8, length -1 for null), then every column's values for the group in column
+ * order. City values are codes into the dictionary built up by the row groups. A row count of 0 ends the file.
+ */
+public class BulkExporter {
+    private static final Logger LOGGER = Logger.getLogger(BulkExporter.class.getName());
+
+    /** Rows per row group (and per chunk for CSV). */
+    public static final int CHUNK_ROWS = 8192;
+
+    static final int FORMAT_VERSION = 1;
+    static final byte TYPE_BYTE = 1;
+    static final byte TYPE_INT = 2;
+    static final byte TYPE_DOUBLE = 3;
+
+    private static final String[] COLUMN_NAMES = {"type", "city", "genre", "pricePerSqm", "sqm", "rooms",
+            "floor", "insulated", "totalPrice", "avgSqmPerRoom", "roomPrice"};
+    private static final byte[] COLUMN_TYPES = {TYPE_BYTE, TYPE_INT, TYPE_BYTE, TYPE_DOUBLE, TYPE_INT, TYPE_DOUBLE,
+            TYPE_INT, TYPE_BYTE, TYPE_INT, TYPE_DOUBLE, TYPE_INT};
+    private static final byte[] MAGIC = {'R', 'E', 'X', 'C'};
+    private static final byte[] EMPTY = new byte[0];
+    private static final byte[] CSV_HEADER = (String.join(",", COLUMN_NAMES) + "\n").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] TYPE_REALESTATE = "REALESTATE".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TYPE_PANEL = "PANEL".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] GENRE_NAMES = genreNames();
+
+    private final ByteBuffer buffer;
+    private final Chunk chunk = new Chunk(CHUNK_ROWS);
+    private final byte[] digits = new byte[20];
+    private final Map<String, byte[]> csvCities = new HashMap<>();
+    private FileChannel channel;
+
+    /**
+     * Exporter with a 1 MB direct buffer.
+     */
+    public BulkExporter() {
+        this(1 << 20);
+    }
+
+    /**
+     * Exporter with a custom buffer size.
+     *
+     * @param bufferBytes size of the direct buffer (at least 64 KB is used)
+     */
+    public BulkExporter(int bufferBytes) {
+        LOGGER.info("Called BulkExporter(" + bufferBytes + ") constructor");
+        buffer = ByteBuffer.allocateDirect(Math.max(1 << 16, bufferBytes)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Export a snapshot to CSV.
+     *
+     * @param snapshot listings to export
+     * @param target   CSV file
+     * @return rows written
+     * @throws IOException if writing fails
+     */
+    public long exportCsv(PortfolioSnapshot snapshot, Path target) throws IOException {
+        LOGGER.info("Called BulkExporter.exportCsv(snapshot, " + target + ")");
+        return export(new SnapshotSource(snapshot), target, false);
+    }
+
+    /**
+     * Export listings to CSV while they are produced, e.g. from a {@link ListingIterator}.
+     *
+     * @param listings listings to export
+     * @param target   CSV file
+     * @return rows written
+     * @throws IOException if writing fails
+     */
+    public long exportCsv(Iterator<? extends RealEstate> listings, Path target) throws IOException {
+        LOGGER.info("Called BulkExporter.exportCsv(iterator, " + target + ")");
+        return export(new IteratorSource(listings), target, false);
+    }
+
+    /**
+     * Export a snapshot to the binary columnar format.
+     *
+     * @param snapshot listings to export
+     * @param target   columnar file
+     * @return rows written
+     * @throws IOException if writing fails
+     */
+    public long exportColumnar(PortfolioSnapshot snapshot, Path target) throws IOException {
+        LOGGER.info("Called BulkExporter.exportColumnar(snapshot, " + target + ")");
+        return export(new SnapshotSource(snapshot), target, true);
+    }
+
+    /**
+     * Export listings to the binary columnar format while they are produced, e.g. from a {@link ListingIterator}.
+     *
+     * @param listings listings to export
+     * @param target   columnar file
+     * @return rows written
+     * @throws IOException if writing fails
+     */
+    public long exportColumnar(Iterator<? extends RealEstate> listings, Path target) throws IOException {
+        LOGGER.info("Called BulkExporter.exportColumnar(iterator, " + target + ")");
+        return export(new IteratorSource(listings), target, true);
+    }
+
+    private long export(Source source, Path target, boolean columnar) throws IOException {
+        long rows = 0;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel = out;
+            buffer.clear();
+            Map<String, Integer> cityCodes = new HashMap<>();
+            List<String> newCities = new ArrayList<>();
+
+            if (columnar) writeColumnarHeader();
+            else put(CSV_HEADER);
+
+            while (source.fill(chunk)) {
+                if (columnar) writeRowGroup(cityCodes, newCities);
+                else writeCsvRows();
+                rows += chunk.size;
+            }
+            if (columnar) {
+                ensure(4);
+                buffer.putInt(0);
+            }
+            drain();
+        } finally {
+            channel = null;
+            csvCities.clear();
+            Arrays.fill(chunk.city, null);
+        }
+        LOGGER.info("Exported " + rows + " rows to " + target);
+        return rows;
+    }
+
+    // ---------------------------------------------------------------- CSV
+
+    private void writeCsvRows() throws IOException {
+        for (int i = 0; i < chunk.size; i++) {
+            ensure(16);
+            buffer.put(chunk.panel[i] ? TYPE_PANEL : TYPE_REALESTATE).put((byte) ',');
+            put(csvCity(chunk.city[i]));
+            ensure(256);   // enough for the remaining fixed-width fields
+            buffer.put((byte) ',');
+            if (chunk.genre[i] >= 0) buffer.put(GENRE_NAMES[chunk.genre[i]]);
+            buffer.put((byte) ',');
+            putFixed2(chunk.price[i]);
+            buffer.put((byte) ',');
+            putLong(chunk.sqm[i]);
+            buffer.put((byte) ',');
+            putFixed2(chunk.rooms[i]);
+            buffer.put((byte) ',');
+            if (chunk.panel[i]) putLong(chunk.floor[i]);
+            buffer.put((byte) ',');
+            if (chunk.panel[i]) buffer.put(chunk.insulated[i] ? (byte) '1' : (byte) '0');
+            buffer.put((byte) ',');
+            putLong(chunk.total[i]);
+            buffer.put((byte) ',');
+            putFixed2(averageSqmPerRoom(i));
+            buffer.put((byte) ',');
+            putLong(roomPrice(i));
+            buffer.put((byte) '\n');
+        }
+    }
+
+    private byte[] csvCity(String city) {
+        if (city == null) return EMPTY;
+        byte[] bytes = csvCities.get(city);
+        if (bytes == null) {
+            String value = city;
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                value = '"' + value.replace("\"", "\"\"") + '"';
+            }
+            bytes = value.getBytes(StandardCharsets.UTF_8);
+            csvCities.put(city, bytes);
+        }
+        return bytes;
+    }
+
+    // two decimals, like String.format("%.2f"): half-up rounding of the shortest decimal form (1.005 gives 1.01)
+    private void putFixed2(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e15) {
+            put(Double.toString(value).getBytes(StandardCharsets.US_ASCII));   // rare, may allocate
+            return;
+        }
+        double hundredths = value * 100.0;
+        long scaled = Math.round(hundredths);
+        if (Math.abs(Math.abs(hundredths - Math.floor(hundredths)) - 0.5) <= 4 * Math.ulp(hundredths)) {
+            // close to a tie, where the binary value may round differently than its decimal form (rare, allocates)
+            scaled = new BigDecimal(Double.toString(value)).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        }
+        if (scaled < 0) {
+            buffer.put((byte) '-');
+            scaled = -scaled;
+        }
+        putLong(scaled / 100);
+        buffer.put((byte) '.');
+        long cents = scaled % 100;
+        buffer.put((byte) ('0' + cents / 10)).put((byte) ('0' + cents % 10));
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                buffer.put((byte) '9');   // -9223372036854775808
+                value = 223372036854775808L;
+            } else {
+                value = -value;
+            }
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.put(digits, pos, digits.length - pos);
+    }
+
+    // ---------------------------------------------------------------- columnar
+
+    private void writeColumnarHeader() throws IOException {
+        put(MAGIC);
+        ensure(8);
+        buffer.putInt(FORMAT_VERSION).putInt(COLUMN_NAMES.length);
+        for (int c = 0; c < COLUMN_NAMES.length; c++) {
+            byte[] name = COLUMN_NAMES[c].getBytes(StandardCharsets.UTF_8);
+            ensure(3);
+            buffer.put(COLUMN_TYPES[c]).putShort((short) name.length);
+            put(name);
+        }
+    }
+
+    private void writeRowGroup(Map<String, Integer> cityCodes, List<String> newCities) throws IOException {
+        int n = chunk.size;
+        newCities.clear();
+        for (int i = 0; i < n; i++) {
+            String city = chunk.city[i];
+            Integer code = cityCodes.get(city);
+            if (code == null) {
+                code = cityCodes.size();
+                cityCodes.put(city, code);
+                newCities.add(city);
+            }
+            chunk.cityCode[i] = code;
+        }
+
+        ensure(8);
+        buffer.putInt(n).putInt(newCities.size());
+        for (String city : newCities) {
+            ensure(4);
+            if (city == null) {
+                buffer.putInt(-1);
+            } else {
+                byte[] bytes = city.getBytes(StandardCharsets.UTF_8);
+                buffer.putInt(bytes.length);
+                put(bytes);
+            }
+        }
+
+        for (int i = 0; i < n; i++) { ensure(1); buffer.put(chunk.panel[i] ? (byte) 1 : (byte) 0); }
+        for (int i = 0; i < n; i++) { ensure(4); buffer.putInt(chunk.cityCode[i]); }
+        for (int i = 0; i < n; i++) { ensure(1); buffer.put(chunk.genre[i]); }
+        for (int i = 0; i < n; i++) { ensure(8); buffer.putDouble(chunk.price[i]); }
+        for (int i = 0; i < n; i++) { ensure(4); buffer.putInt(chunk.sqm[i]); }
+        for (int i = 0; i < n; i++) { ensure(8); buffer.putDouble(chunk.rooms[i]); }
+        for (int i = 0; i < n; i++) { ensure(4); buffer.putInt(chunk.floor[i]); }
+        for (int i = 0; i < n; i++) { ensure(1); buffer.put(chunk.insulated[i] ? (byte) 1 : (byte) 0); }
+        for (int i = 0; i < n; i++) { ensure(4); buffer.putInt(chunk.total[i]); }
+        for (int i = 0; i < n; i++) { ensure(8); buffer.putDouble(averageSqmPerRoom(i)); }
+        for (int i = 0; i < n; i++) { ensure(4); buffer.putInt(roomPrice(i)); }
+    }
+
+    // ---------------------------------------------------------------- buffer handling
+
+    private double averageSqmPerRoom(int i) {
+        if (chunk.rooms[i] <= 0) return 0.0;
+        return (double) chunk.sqm[i] / chunk.rooms[i];
+    }
+
+    private int roomPrice(int i) {
+        if (chunk.rooms[i] <= 0) return 0;
+        return (int) Math.round(chunk.price[i] * chunk.sqm[i] / chunk.rooms[i]);
+    }
+
+    /** Make room for at least the given number of bytes. */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) drain();
+    }
+
+    /** Put bytes of any length, draining as often as needed. */
+    private void put(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) drain();
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /** Write the buffer content to the channel. */
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static byte[][] genreNames() {
+        Genre[] genres = Genre.values();
+        byte[][] names = new byte[genres.length][];
+        for (int g = 0; g < genres.length; g++) names[g] = genres[g].name().getBytes(StandardCharsets.US_ASCII);
+        return names;
+    }
+
+    // ---------------------------------------------------------------- sources
+
+    /**
+     * Reusable column-oriented batch of rows.
+     */
+    private static final class Chunk {
+        final boolean[] panel;
+        final String[] city;
+        final int[] cityCode;
+        final byte[] genre;
+        final double[] price;
+        final int[] sqm;
+        final double[] rooms;
+        final int[] floor;
+        final boolean[] insulated;
+        final int[] total;
+        int size;
+
+        Chunk(int capacity) {
+            panel = new boolean[capacity];
+            city = new String[capacity];
+            cityCode = new int[capacity];
+            genre = new byte[capacity];
+            price = new double[capacity];
+            sqm = new int[capacity];
+            rooms = new double[capacity];
+            floor = new int[capacity];
+            insulated = new boolean[capacity];
+            total = new int[capacity];
+        }
+    }
+
+    private interface Source {
+        /** Fill the chunk with the next rows; false when there are no more rows. */
+        boolean fill(Chunk chunk);
+    }
+
+    private static final class SnapshotSource implements Source {
+        private final PortfolioSnapshot snapshot;
+        private int row;
+
+        SnapshotSource(PortfolioSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean fill(Chunk chunk) {
+            int n = Math.min(chunk.total.length, snapshot.size() - row);
+            for (int i = 0; i < n; i++, row++) {
+                chunk.panel[i] = snapshot.isPanel(row);
+                chunk.city[i] = snapshot.city(row);
+                chunk.genre[i] = (byte) snapshot.genreOrdinal(row);
+                chunk.price[i] = snapshot.price(row);
+                chunk.sqm[i] = snapshot.sqm(row);
+                chunk.rooms[i] = snapshot.rooms(row);
+                chunk.floor[i] = snapshot.floor(row);
+                chunk.insulated[i] = snapshot.isInsulated(row);
+                chunk.total[i] = snapshot.totalPrice(row);
+            }
+            chunk.size = n;
+            return n > 0;
+        }
+    }
+
+    private static final class IteratorSource implements Source {
+        private final Iterator<? extends RealEstate> listings;
+
+        IteratorSource(Iterator<? extends RealEstate> listings) {
+            this.listings = listings;
+        }
+
+        @Override
+        public boolean fill(Chunk chunk) {
+            int n = 0;
+            while (n < chunk.total.length && listings.hasNext()) {
+                RealEstate r = listings.next();
+                boolean panel = r instanceof Panel;
+                Genre genre = r.getGenre();
+                chunk.panel[n] = panel;
+                chunk.city[n] = r.getCity();
+                chunk.genre[n] = (byte) (genre == null ? -1 : genre.ordinal());
+                chunk.price[n] = r.getPrice();
+                chunk.sqm[n] = r.getSqm();
+                chunk.rooms[n] = r.getNumberOfRooms();
+                chunk.floor[n] = panel ? ((Panel) r).getFloor() : 0;
+                chunk.insulated[n] = panel && ((Panel) r).isInsulated();
+                chunk.total[n] = r.getTotalPrice();
+                n++;
+            }
+            chunk.size = n;
+            return n > 0;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * k-nearest comparable listings ("comps") search. Listings are partitioned by city, genre and kind
+ * (Panel or not); each partition is a KD-tree over scaled numeric features: sqm, rooms and price per sqm,
+ * plus floor and insulation for Panels. Each scale is the amount of that feature worth one unit of
+ * distance. Listings can be added one by one after the index is built.
+ */
+public class ComparablesIndex {
+    private static final Logger LOGGER = Logger.getLogger(ComparablesIndex.class.getName());
+
+    private final double sqmScale;
+    private final double roomsScale;
+    private final double priceScale;
+    private final double floorScale;
+    private final double insulationScale;
+    private final Map<String, KdTree> partitions = new HashMap<>();
+    private int size;
+
+    /**
+     * Empty index with default scales: 10 sqm, 1 room, 10000 price per sqm, 1 floor and the
+     * insulation flag each count as one unit of distance.
+     */
+    public ComparablesIndex() {
+        this(10.0, 1.0, 10000.0, 1.0, 1.0);
+    }
+
+    /**
+     * Empty index with custom scales.
+     *
+     * @param sqmScale        sqm per unit of distance
+     * @param roomsScale      rooms per unit of distance
+     * @param priceScale      price per sqm per unit of distance
+     * @param floorScale      floors per unit of distance (Panels)
+     * @param insulationScale weight divisor of the insulation flag (Panels)
+     */
+    public ComparablesIndex(double sqmScale, double roomsScale, double priceScale,
+                            double floorScale, double insulationScale) {
+        LOGGER.info("Called ComparablesIndex(...) constructor");
+        this.sqmScale = sqmScale;
+        this.roomsScale = roomsScale;
+        this.priceScale = priceScale;
+        this.floorScale = floorScale;
+        this.insulationScale = insulationScale;
+    }
+
+    /**
+     * Index with default scales, bulk-built (balanced) from a snapshot.
+     *
+     * @param snapshot portfolio to index
+     */
+    public ComparablesIndex(PortfolioSnapshot snapshot) {
+        this();
+        LOGGER.info("Building ComparablesIndex for " + snapshot.size() + " listings");
+        double[] point = new double[5];
+        for (int row = 0; row < snapshot.size(); row++) {
+            boolean panel = snapshot.isPanel(row);
+            String key = partitionKey(snapshot.city(row), snapshot.genreOrdinal(row), panel);
+            KdTree tree = partitions.computeIfAbsent(key, k -> new KdTree(panel ? 5 : 3));
+            features(snapshot.sqm(row), snapshot.rooms(row), snapshot.price(row),
+                    snapshot.floor(row), snapshot.isInsulated(row), point);
+            tree.append(point, snapshot.listing(row));
+        }
+        for (KdTree tree : partitions.values()) tree.rebuild();
+        size = snapshot.size();
+    }
+
+    /**
+     * Adds one listing to the index.
+     *
+     * @param listing listing to add
+     */
+    public void add(RealEstate listing) {
+        LOGGER.info("Called ComparablesIndex.add(listing)");
+        boolean panel = listing instanceof Panel;
+        String key = partitionKey(listing.getCity(), genreOrdinal(listing.getGenre()), panel);
+        KdTree tree = partitions.computeIfAbsent(key, k -> new KdTree(panel ? 5 : 3));
+        tree.insert(features(listing, new double[5]), listing);
+        size++;
+    }
+
+    /**
+     * Number of indexed listings.
+     *
+     * @return listing count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the height of the deepest partition tree (used to check that inserts stay balanced).
+     *
+     * @return maximum tree height
+     */
+    int maxHeight() {
+        LOGGER.info("Called ComparablesIndex.maxHeight()");
+        int height = 0;
+        for (KdTree tree : partitions.values()) height = Math.max(height, tree.height());
+        return height;
+    }
+
+    /**
+     * The k listings most comparable to the subject: same city, genre and kind, nearest by features.
+     *
+     * @param subject subject property (never returned itself)
+     * @param k       number of comparables
+     * @return comparables, nearest first (fewer than k if the partition is small)
+     */
+    public List<RealEstate> nearest(RealEstate subject, int k) {
+        LOGGER.info("Called ComparablesIndex.nearest(subject, " + k + ")");
+        boolean panel = subject instanceof Panel;
+        KdTree tree = partitions.get(partitionKey(subject.getCity(), genreOrdinal(subject.getGenre()), panel));
+        if (tree == null || k <= 0) return new ArrayList<>();
+        return tree.nearest(features(subject, new double[5]), k, subject);
+    }
+
+    private double[] features(RealEstate r, double[] out) {
+        int floor = 0;
+        boolean insulated = false;
+        if (r instanceof Panel) {
+            Panel p = (Panel) r;
+            floor = p.getFloor();
+            insulated = p.isInsulated();
+        }
+        features(r.getSqm(), r.getNumberOfRooms(), r.getPrice(), floor, insulated, out);
+        return out;
+    }
+
+    private void features(int sqm, double rooms, double price, int floor, boolean insulated, double[] out) {
+        out[0] = sqm / sqmScale;
+        out[1] = rooms / roomsScale;
+        out[2] = price / priceScale;
+        out[3] = floor / floorScale;
+        out[4] = (insulated ? 1.0 : 0.0) / insulationScale;
+    }
+
+    private static int genreOrdinal(Genre genre) {
+        return genre == null ? -1 : genre.ordinal();
+    }
+
+    private static String partitionKey(String city, int genreOrdinal, boolean panel) {
+        String c = city == null ? "" : city.trim().toLowerCase();
+        return c + '#' + genreOrdinal + '#' + (panel ? 'P' : 'R');
+    }
+
+    /**
+     * KD-tree with nodes stored in flat arrays; the splitting axis of a node is its depth modulo dims.
+     * Inserts keep the tree balanced scapegoat-style: when an insert lands deeper than log(count) / log(1 / ALPHA),
+     * the highest ancestor whose child holds more than ALPHA of its subtree is rebuilt with median splits.
+     */
+    private static final class KdTree {
+        private static final double ALPHA = 0.7;
+
+        private final int dims;
+        private double[] coords = new double[0];   // dims values per node
+        private int[] left = new int[0];
+        private int[] right = new int[0];
+        private int[] sizes = new int[0];          // number of nodes in the subtree
+        private RealEstate[] items = new RealEstate[0];
+        private int[] path = new int[64];          // insertion path, reused
+        private int count;
+        private int root = -1;
+
+        KdTree(int dims) {
+            this.dims = dims;
+        }
+
+        /** Stores a point without linking it into the tree; call rebuild() afterwards. */
+        void append(double[] point, RealEstate item) {
+            ensureCapacity(count + 1);
+            System.arraycopy(point, 0, coords, count * dims, dims);
+            left[count] = -1;
+            right[count] = -1;
+            sizes[count] = 1;
+            items[count] = item;
+            count++;
+        }
+
+        /** Stores a point, links it below the leaf it falls into and rebalances if it landed too deep. */
+        void insert(double[] point, RealEstate item) {
+            int node = count;
+            append(point, item);
+            if (root < 0) {
+                root = node;
+                return;
+            }
+            int current = root;
+            int depth = 0;
+            while (true) {
+                if (depth == path.length) path = Arrays.copyOf(path, depth * 2);
+                path[depth] = current;
+                sizes[current]++;
+                int axis = depth % dims;
+                depth++;
+                if (point[axis] < coords[current * dims + axis]) {
+                    if (left[current] < 0) { left[current] = node; break; }
+                    current = left[current];
+                } else {
+                    if (right[current] < 0) { right[current] = node; break; }
+                    current = right[current];
+                }
+            }
+            if (depth > Math.log(count) / Math.log(1 / ALPHA)) rebalance(node, depth);
+        }
+
+        /**
+         * Rebuilds the subtree of the highest alpha-unbalanced ancestor on the insertion path.
+         *
+         * @param node  inserted node
+         * @param depth depth of the inserted node (path[0 .. depth - 1] are its ancestors)
+         */
+        private void rebalance(int node, int depth) {
+            int scapegoat = -1;
+            int child = node;
+            for (int i = depth - 1; i >= 0; i--) {
+                int ancestor = path[i];
+                if (sizes[child] > ALPHA * sizes[ancestor]) scapegoat = i;
+                child = ancestor;
+            }
+            if (scapegoat < 0) return;
+
+            int top = path[scapegoat];
+            int[] ids = new int[sizes[top]];
+            collect(top, ids);
+            int rebuilt = build(ids, 0, ids.length, scapegoat);
+            if (scapegoat == 0) {
+                root = rebuilt;
+            } else {
+                int parent = path[scapegoat - 1];
+                if (left[parent] == top) left[parent] = rebuilt;
+                else right[parent] = rebuilt;
+            }
+        }
+
+        /** Collects the nodes of a subtree into ids (iteratively). */
+        private void collect(int top, int[] ids) {
+            int[] stack = new int[64];
+            int sp = 0;
+            int n = 0;
+            stack[sp++] = top;
+            while (sp > 0) {
+                int node = stack[--sp];
+                ids[n++] = node;
+                if (sp + 2 > stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                if (left[node] >= 0) stack[sp++] = left[node];
+                if (right[node] >= 0) stack[sp++] = right[node];
+            }
+        }
+
+        /** Relinks all stored points into a balanced tree (median splits). */
+        void rebuild() {
+            int[] ids = new int[count];
+            for (int i = 0; i < count; i++) ids[i] = i;
+            root = build(ids, 0, count, 0);
+        }
+
+        private int build(int[] ids, int from, int to, int depth) {
+            if (from >= to) return -1;
+            int axis = depth % dims;
+            int mid = (from + to) >>> 1;
+            select(ids, from, to - 1, mid, axis);
+            int node = ids[mid];
+            left[node] = build(ids, from, mid, depth + 1);
+            right[node] = build(ids, mid + 1, to, depth + 1);
+            sizes[node] = to - from;
+            return node;
+        }
+
+        // quickselect: afterwards ids[k] holds the k-th smallest coordinate on the axis within [lo, hi]
+        private void select(int[] ids, int lo, int hi, int k, int axis) {
+            while (lo < hi) {
+                double pivot = coords[ids[(lo + hi) >>> 1] * dims + axis];
+                int i = lo;
+                int j = hi;
+                while (i <= j) {
+                    while (coords[ids[i] * dims + axis] < pivot) i++;
+                    while (coords[ids[j] * dims + axis] > pivot) j--;
+                    if (i <= j) {
+                        int tmp = ids[i];
+                        ids[i] = ids[j];
+                        ids[j] = tmp;
+                        i++;
+                        j--;
+                    }
+                }
+                if (k <= j) hi = j;
+                else if (k >= i) lo = i;
+                else return;
+            }
+        }
+
+        /** Returns the depth of the deepest node (1 for a single node, 0 when empty). */
+        int height() {
+            if (root < 0) return 0;
+            int[] nodes = new int[64];
+            int[] depths = new int[64];
+            int sp = 0;
+            int height = 0;
+            nodes[sp] = root;
+            depths[sp++] = 1;
+            while (sp > 0) {
+                int node = nodes[--sp];
+                int depth = depths[sp];
+                height = Math.max(height, depth);
+                if (sp + 2 > nodes.length) {
+                    nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                    depths = Arrays.copyOf(depths, depths.length * 2);
+                }
+                if (left[node] >= 0) { nodes[sp] = left[node]; depths[sp++] = depth + 1; }
+                if (right[node] >= 0) { nodes[sp] = right[node]; depths[sp++] = depth + 1; }
+            }
+            return height;
+        }
+
+        List<RealEstate> nearest(double[] query, int k, RealEstate exclude) {
+            Candidates best = new Candidates(Math.min(k, count));
+            search(query, exclude, best);
+            return best.sorted(items);
+        }
+
+        /**
+         * Iterative k-NN search: each stacked subtree carries a lower bound of its distance
+         * (the squared distance to the splitting plane), so it is skipped once k closer nodes are known.
+         */
+        private void search(double[] query, RealEstate exclude, Candidates best) {
+            int[] nodes = new int[64];
+            int[] depths = new int[64];
+            double[] bounds = new double[64];
+            int sp = 0;
+            if (root >= 0) {
+                nodes[sp] = root;
+                depths[sp] = 0;
+                bounds[sp++] = 0.0;
+            }
+            while (sp > 0) {
+                sp--;
+                int node = nodes[sp];
+                int depth = depths[sp];
+                if (bounds[sp] > best.worst()) continue;
+
+                int base = node * dims;
+                if (items[node] != exclude) {
+                    double dist = 0.0;
+                    for (int d = 0; d < dims; d++) {
+                        double diff = query[d] - coords[base + d];
+                        dist += diff * diff;
+                    }
+                    best.offer(dist, node);
+                }
+                int axis = depth % dims;
+                double diff = query[axis] - coords[base + axis];
+                int near = diff < 0 ? left[node] : right[node];
+                int far = diff < 0 ? right[node] : left[node];
+
+                if (sp + 2 > nodes.length) {
+                    nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                    depths = Arrays.copyOf(depths, depths.length * 2);
+                    bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                }
+                // far side first, so the near side is searched before it
+                if (far >= 0) { nodes[sp] = far; depths[sp] = depth + 1; bounds[sp++] = diff * diff; }
+                if (near >= 0) { nodes[sp] = near; depths[sp] = depth + 1; bounds[sp++] = 0.0; }
+            }
+        }
+
+        private void ensureCapacity(int needed) {
+            if (needed <= items.length) return;
+            int capacity = Math.max(16, Math.max(needed, items.length * 2));
+            coords = Arrays.copyOf(coords, capacity * dims);
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+            items = Arrays.copyOf(items, capacity);
+        }
+    }
+
+    /**
+     * Bounded max-heap of the k best (smallest distance) nodes found so far.
+     */
+    private static final class Candidates {
+        private final double[] dist;
+        private final int[] nodes;
+        private int size;
+
+        Candidates(int k) {
+            dist = new double[k];
+            nodes = new int[k];
+        }
+
+        double worst() {
+            return size < dist.length ? Double.POSITIVE_INFINITY : dist[0];
+        }
+
+        void offer(double d, int node) {
+            if (size < dist.length) {
+                int i = size++;
+                while (i > 0) {   // sift up
+                    int parent = (i - 1) / 2;
+                    if (dist[parent] >= d) break;
+                    dist[i] = dist[parent];
+                    nodes[i] = nodes[parent];
+                    i = parent;
+                }
+                dist[i] = d;
+                nodes[i] = node;
+            } else if (d < dist[0]) {
+                int i = 0;
+                while (true) {    // sift down from the root
+                    int child = 2 * i + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && dist[child + 1] > dist[child]) child++;
+                    if (dist[child] <= d) break;
+                    dist[i] = dist[child];
+                    nodes[i] = nodes[child];
+                    i = child;
+                }
+                dist[i] = d;
+                nodes[i] = node;
+            }
+        }
+
+        List<RealEstate> sorted(RealEstate[] items) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Double.compare(dist[a], dist[b]));
+            List<RealEstate> result = new ArrayList<>(size);
+            for (Integer i : order) result.add(items[nodes[i]]);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Portfolio-level equal-price matching, the indexed counterpart of PanelInterface.hasSameAmount().
+ * Total prices are computed once from a snapshot. Exact lookups use a hash index on total price;
+ * tolerance lookups and groups use the same rows sorted by total price.
+ */
+public class EqualPriceIndex {
+    private static final Logger LOGGER = Logger.getLogger(EqualPriceIndex.class.getName());
+
+    private final PortfolioSnapshot snapshot;
+    private final int[] sortedTotals;              // ascending
+    private final int[] sortedRows;                // snapshot row of each sortedTotals entry
+    private final Map<Integer, Integer> runStart;  // total price -> first position in sortedTotals
+
+    /**
+     * Build the index.
+     *
+     * @param snapshot portfolio to index
+     */
+    public EqualPriceIndex(PortfolioSnapshot snapshot) {
+        LOGGER.info("Called EqualPriceIndex(...) constructor for " + snapshot.size() + " listings");
+        this.snapshot = snapshot;
+        int n = snapshot.size();
+
+        // sort (total, row) pairs packed into longs: primitive sort, ties keep snapshot order
+        long[] packed = new long[n];
+        for (int row = 0; row < n; row++) {
+            packed[row] = ((long) snapshot.totalPrice(row) << 32) | row;
+        }
+        Arrays.sort(packed);
+
+        sortedTotals = new int[n];
+        sortedRows = new int[n];
+        runStart = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            sortedTotals[i] = (int) (packed[i] >> 32);
+            sortedRows[i] = (int) packed[i];
+            if (i == 0 || sortedTotals[i] != sortedTotals[i - 1]) runStart.put(sortedTotals[i], i);
+        }
+    }
+
+    /**
+     * All listings with exactly the given total price.
+     *
+     * @param totalPrice total price to look up
+     * @return matching listings (empty if none)
+     */
+    public List<RealEstate> matches(int totalPrice) {
+        LOGGER.info("Called EqualPriceIndex.matches(" + totalPrice + ")");
+        Integer start = runStart.get(totalPrice);
+        if (start == null) return new ArrayList<>();
+        return listings(start, runEnd(start), null);
+    }
+
+    /**
+     * All other listings with the same total price as the given one (what hasSameAmount would accept).
+     *
+     * @param listing listing to match (excluded from the result)
+     * @return matching listings (empty if none or listing is null)
+     */
+    public List<RealEstate> matches(RealEstate listing) {
+        LOGGER.info("Called EqualPriceIndex.matches(listing)");
+        if (listing == null) return new ArrayList<>();
+        Integer start = runStart.get(listing.getTotalPrice());
+        if (start == null) return new ArrayList<>();
+        return listings(start, runEnd(start), listing);
+    }
+
+    /**
+     * All listings whose total price is within the tolerance band around the given price.
+     *
+     * @param totalPrice total price
+     * @param tolerance  allowed absolute difference (inclusive)
+     * @return matching listings in ascending price order
+     */
+    public List<RealEstate> matchesWithin(int totalPrice, int tolerance) {
+        LOGGER.info("Called EqualPriceIndex.matchesWithin(" + totalPrice + ", " + tolerance + ")");
+        long low = (long) totalPrice - Math.abs((long) tolerance);
+        long high = (long) totalPrice + Math.abs((long) tolerance);
+        return listings(lowerBound(low), lowerBound(high + 1), null);
+    }
+
+    /**
+     * All groups of two or more listings with equal total price.
+     *
+     * @return groups in ascending price order
+     */
+    public List<List<RealEstate>> groups() {
+        LOGGER.info("Called EqualPriceIndex.groups()");
+        return groupsWithin(0);
+    }
+
+    /**
+     * Groups of two or more listings whose prices are chained within the tolerance: neighbours in price
+     * order that differ by at most the tolerance belong to the same group. A tolerance of 0 gives
+     * exact equal-price groups.
+     *
+     * @param tolerance allowed absolute difference between neighbouring prices
+     * @return groups in ascending price order
+     */
+    public List<List<RealEstate>> groupsWithin(int tolerance) {
+        LOGGER.info("Called EqualPriceIndex.groupsWithin(" + tolerance + ")");
+        long band = Math.abs((long) tolerance);
+        List<List<RealEstate>> groups = new ArrayList<>();
+        int n = sortedTotals.length;
+        int start = 0;
+        for (int i = 1; i <= n; i++) {
+            if (i == n || (long) sortedTotals[i] - sortedTotals[i - 1] > band) {
+                if (i - start >= 2) groups.add(listings(start, i, null));
+                start = i;
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Returns end (exclusive) of the equal-price run starting at start.
+     */
+    private int runEnd(int start) {
+        int end = start + 1;
+        int total = sortedTotals[start];
+        while (end < sortedTotals.length && sortedTotals[end] == total) end++;
+        return end;
+    }
+
+    /**
+     * Returns the first position whose total price is >= value.
+     */
+    private int lowerBound(long value) {
+        int lo = 0;
+        int hi = sortedTotals.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sortedTotals[mid] < value) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private List<RealEstate> listings(int from, int to, RealEstate exclude) {
+        List<RealEstate> result = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            RealEstate r = snapshot.listing(sortedRows[i]);
+            if (r != exclude) result.add(r);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+package org.example;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.logging.Logger;
+
+/**
+ * Streams listings from an input file one line at a time, so consumers (e.g. {@link BulkExporter}) can start
+ * before the whole file is read. Lines are validated with {@link ListingValidator}; invalid lines are skipped
+ * and counted. Like RealEstateAgent.load(), a missing file streams the sample data. Unlike the agent's TreeSet,
+ * listings with equal total price and city are not de-duplicated.
+ */
+public class ListingIterator implements Iterator<RealEstate>, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ListingIterator.class.getName());
+
+    private final BufferedReader reader;        // null when streaming sample data
+    private final Iterator<String> sampleLines;
+    private RealEstate next;
+    private int skipped;
+
+    /**
+     * Open the input file.
+     *
+     * @param filename input file
+     * @throws IOException if the file exists but cannot be opened
+     */
+    public ListingIterator(String filename) throws IOException {
+        LOGGER.info("Called ListingIterator(" + filename + ") constructor");
+        Path path = Paths.get(filename);
+        if (Files.exists(path)) {
+            reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+            sampleLines = null;
+        } else {
+            LOGGER.info("'" + filename + "' not found — streaming sample data.");
+            reader = null;
+            sampleLines = RealEstateAgent.sampleData().iterator();
+        }
+    }
+
+    /**
+     * Returns whether another valid listing follows.
+     *
+     * @return true if {@link #next()} has a listing
+     * @throws UncheckedIOException if reading the file fails
+     */
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            String line = readLine();
+            if (line == null) return false;
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            String[] parts = line.split("#");
+            if (ListingValidator.validate(parts) == ValidationResult.OK) {
+                next = RealEstateAgent.parseFields(parts);
+            } else {
+                skipped++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next valid listing.
+     *
+     * @return listing
+     */
+    @Override
+    public RealEstate next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        RealEstate r = next;
+        next = null;
+        return r;
+    }
+
+    /**
+     * Returns the number of invalid lines skipped so far.
+     *
+     * @return skipped line count
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Close the input file.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        LOGGER.info("Called ListingIterator.close(), skipped invalid lines: " + skipped);
+        if (reader != null) reader.close();
+    }
+
+    private String readLine() {
+        if (reader == null) return sampleLines.hasNext() ? sampleLines.next() : null;
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.example;
+
+/**
+ * Exception-free checks for input lines. A line that validates as OK can be parsed without any exception.
+ */
+public final class ListingValidator {
+
+    private static final Genre[] GENRES = Genre.values();
+
+    private ListingValidator() { /* utility */ }
+
+    /**
+     * Validate the fields of one line (already split on '#').
+     * A line is OK exactly when RealEstateAgent would parse it without an exception.
+     *
+     * @param parts fields of the line
+     * @return OK or the reason the line has to be rejected
+     */
+    public static ValidationResult validate(String[] parts) {
+        if (parts.length < 6) return ValidationResult.NOT_ENOUGH_FIELDS;
+        if (!isDecimal(parts[2])) return ValidationResult.INVALID_PRICE;
+        if (!isInt(parts[3])) return ValidationResult.INVALID_SQM;
+        if (!isDecimal(parts[4])) return ValidationResult.INVALID_ROOMS;
+        if (!isGenre(parts[5])) return ValidationResult.UNKNOWN_GENRE;
+
+        if (isPanel(parts[0])) {
+            if (parts.length < 8) return ValidationResult.MISSING_PANEL_FIELDS;
+            if (!isInt(parts[6])) return ValidationResult.INVALID_FLOOR;
+        }
+        return ValidationResult.OK;
+    }
+
+    /**
+     * Returns whether the class field names a Panel.
+     *
+     * @param cls first field of the line
+     * @return true for PANEL (case-insensitive, surrounding whitespace ignored)
+     */
+    static boolean isPanel(String cls) {
+        int start = skipLeading(cls);
+        int end = skipTrailing(cls, start);
+        return cls.regionMatches(true, start, "PANEL", 0, 5) && end - start == 5;
+    }
+
+    /**
+     * Resolves a genre name without throwing. Upper-cases the trimmed field exactly like the parser's
+     * Genre.valueOf(s.trim().toUpperCase()), so e.g. "FAMİLYHOUSE" (dotted capital I) is unknown to both.
+     *
+     * @param s genre field
+     * @return matching genre or null when unknown
+     */
+    static Genre genreOf(String s) {
+        String upper = s.trim().toUpperCase();
+        for (Genre g : GENRES) {
+            if (g.name().equals(upper)) return g;
+        }
+        return null;
+    }
+
+    private static boolean isGenre(String s) {
+        return genreOf(s) != null;
+    }
+
+    /**
+     * Checks that the field is an int in range, as accepted by Integer.parseInt after trimming.
+     */
+    private static boolean isInt(String s) {
+        int i = skipLeading(s);
+        int end = skipTrailing(s, i);
+        boolean negative = i < end && s.charAt(i) == '-';
+        if (i < end && (s.charAt(i) == '+' || negative)) i++;
+        if (i >= end) return false;
+        // leading zeros do not count towards the length limit
+        while (i < end - 1 && Character.digit(s.charAt(i), 10) == 0) i++;
+        if (end - i > 10) return false;
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = Character.digit(s.charAt(i), 10);
+            if (digit < 0) return false;
+            value = value * 10 + digit;
+        }
+        // -2147483648 is the only value one past Integer.MAX_VALUE that is still in range
+        return value <= Integer.MAX_VALUE || (value == Integer.MAX_VALUE + 1L && negative);
+    }
+
+    /**
+     * Checks that the field is a number as accepted by Double.parseDouble after trimming:
+     * [sign] then NaN, Infinity, a decimal number with optional exponent, or a hexadecimal number with a
+     * binary exponent (0x1.8p3); decimal and hexadecimal numbers may end with f, F, d or D.
+     */
+    private static boolean isDecimal(String s) {
+        int i = skipLeading(s);
+        int end = skipTrailing(s, i);
+        if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+        if (s.startsWith("NaN", i)) return i + 3 == end;
+        if (s.startsWith("Infinity", i)) return i + 8 == end;
+
+        if (end - i > 2 && s.charAt(i) == '0' && (s.charAt(i + 1) == 'x' || s.charAt(i + 1) == 'X')) {
+            i = skipHexNumber(s, i + 2, end);
+            if (i < 0 || i >= end || (s.charAt(i) != 'p' && s.charAt(i) != 'P')) return false;   // 'p' is required
+            i = skipExponent(s, i + 1, end);
+        } else {
+            int digits = 0;
+            while (i < end && isDigit(s.charAt(i))) { i++; digits++; }
+            if (i < end && s.charAt(i) == '.') {
+                i++;
+                while (i < end && isDigit(s.charAt(i))) { i++; digits++; }
+            }
+            if (digits == 0) return false;
+            if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) i = skipExponent(s, i + 1, end);
+        }
+        if (i < 0) return false;
+        if (i < end && "fFdD".indexOf(s.charAt(i)) >= 0) i++;
+        return i == end;
+    }
+
+    /**
+     * Skips hex digits with an optional '.', returning the position after them or -1 if there are none.
+     */
+    private static int skipHexNumber(String s, int i, int end) {
+        int digits = 0;
+        while (i < end && Character.digit(s.charAt(i), 16) >= 0 && s.charAt(i) < 128) { i++; digits++; }
+        if (i < end && s.charAt(i) == '.') {
+            i++;
+            while (i < end && Character.digit(s.charAt(i), 16) >= 0 && s.charAt(i) < 128) { i++; digits++; }
+        }
+        return digits == 0 ? -1 : i;
+    }
+
+    /**
+     * Skips an exponent's [sign] digits, returning the position after them or -1 if there are no digits.
+     */
+    private static int skipExponent(String s, int i, int end) {
+        if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+        int digits = 0;
+        while (i < end && isDigit(s.charAt(i))) { i++; digits++; }
+        return digits == 0 ? -1 : i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // same whitespace rule as String.trim()
+    private static int skipLeading(String s) {
+        int i = 0;
+        while (i < s.length() && s.charAt(i) <= ' ') i++;
+        return i;
+    }
+
+    private static int skipTrailing(String s, int start) {
+        int end = s.length();
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        return end;
+    }
+}
@@ -1,5 +1,6 @@
 package org.example;
 
+import java.util.List;
 import java.util.logging.Logger;
 
 /**
@@ -117,6 +118,18 @@ public class Panel extends RealEstate implements PanelInterface {
         return this.getTotalPrice() == other.getTotalPrice();
     }
 
+    /**
+     * Finds all other listings with the same total price using the portfolio index.
+     *
+     * @param index equal-price index of the portfolio
+     * @return listings with same total price (this Panel excluded)
+     */
+    @Override
+    public List<RealEstate> findSameAmount(EqualPriceIndex index) {
+        LOGGER.info("Called Panel.findSameAmount(index)");
+        return index.matches(this);
+    }
+
     /**
      * Calculates room price (base, without modifiers).
      *
@@ -1,5 +1,7 @@
 package org.example;
 
+import java.util.List;
+
 /**
  * Panel-specific helper operations.
  */
@@ -12,6 +14,14 @@ public interface PanelInterface {
      */
     boolean hasSameAmount(RealEstate other);
 
+    /**
+     * Returns every other listing of the indexed portfolio with the same total price as this.
+     *
+     * @param index equal-price index of the portfolio
+     * @return listings with same total price
+     */
+    List<RealEstate> findSameAmount(EqualPriceIndex index);
+
     /**
      * Average price of one room (no city/floor/insulation modifiers)
      *
@@ -0,0 +1,168 @@
+package org.example;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.logging.Logger;
+
+/**
+ * Compact, mergeable aggregates of one shard for report sections 1-4 (and the average total price that
+ * section 5 filters on). Written to and read from a binary stream so worker processes can send it over a pipe.
+ */
+public final class PartialReport {
+    private static final Logger LOGGER = Logger.getLogger(PartialReport.class.getName());
+
+    private final int count;
+    private final double pricePerSqmSum;
+    private final int cheapestTotalPrice;          // Integer.MAX_VALUE when empty
+    private final boolean hasBudapest;
+    private final int budapestMaxTotalPrice;
+    private final double budapestSqmPerRoom;       // of the most expensive Budapest listing
+    private final long totalPrices;
+
+    private PartialReport(int count, double pricePerSqmSum, int cheapestTotalPrice, boolean hasBudapest,
+                          int budapestMaxTotalPrice, double budapestSqmPerRoom, long totalPrices) {
+        this.count = count;
+        this.pricePerSqmSum = pricePerSqmSum;
+        this.cheapestTotalPrice = cheapestTotalPrice;
+        this.hasBudapest = hasBudapest;
+        this.budapestMaxTotalPrice = budapestMaxTotalPrice;
+        this.budapestSqmPerRoom = budapestSqmPerRoom;
+        this.totalPrices = totalPrices;
+    }
+
+    /**
+     * Aggregate the properties of one shard the same way produceReport() does.
+     *
+     * @param properties properties of the shard
+     * @return partial report
+     */
+    public static PartialReport of(Collection<? extends RealEstate> properties) {
+        LOGGER.info("Called PartialReport.of() for " + properties.size() + " properties");
+        double priceSum = 0.0;
+        int cheapest = Integer.MAX_VALUE;
+        boolean budapest = false;
+        int budapestMax = Integer.MIN_VALUE;
+        double budapestSqm = 0.0;
+        long total = 0;
+        for (RealEstate r : properties) {
+            int price = r.getTotalPrice();
+            priceSum += r.getPrice();
+            total += price;
+            if (price < cheapest) cheapest = price;
+            String city = r.getCity();
+            if (city != null && city.trim().equalsIgnoreCase("Budapest") && (!budapest || price > budapestMax)) {
+                budapest = true;
+                budapestMax = price;
+                budapestSqm = r.averageSqmPerRoom();
+            }
+        }
+        return new PartialReport(properties.size(), priceSum, cheapest, budapest, budapestMax, budapestSqm, total);
+    }
+
+    /**
+     * Merge two partial reports.
+     *
+     * @param other other partial report
+     * @return combined partial report
+     */
+    public PartialReport merge(PartialReport other) {
+        boolean otherBudapestWins = other.hasBudapest && (!hasBudapest || other.budapestMaxTotalPrice > budapestMaxTotalPrice);
+        return new PartialReport(count + other.count,
+                pricePerSqmSum + other.pricePerSqmSum,
+                Math.min(cheapestTotalPrice, other.cheapestTotalPrice),
+                hasBudapest || other.hasBudapest,
+                otherBudapestWins ? other.budapestMaxTotalPrice : budapestMaxTotalPrice,
+                otherBudapestWins ? other.budapestSqmPerRoom : budapestSqmPerRoom,
+                totalPrices + other.totalPrices);
+    }
+
+    /**
+     * Write the partial report in binary form.
+     *
+     * @param out output
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(count);
+        out.writeDouble(pricePerSqmSum);
+        out.writeInt(cheapestTotalPrice);
+        out.writeBoolean(hasBudapest);
+        out.writeInt(budapestMaxTotalPrice);
+        out.writeDouble(budapestSqmPerRoom);
+        out.writeLong(totalPrices);
+    }
+
+    /**
+     * Read a partial report written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in input
+     * @return partial report
+     * @throws IOException if reading fails
+     */
+    public static PartialReport readFrom(DataInput in) throws IOException {
+        int count = in.readInt();
+        double priceSum = in.readDouble();
+        int cheapest = in.readInt();
+        boolean budapest = in.readBoolean();
+        int budapestMax = in.readInt();
+        double budapestSqm = in.readDouble();
+        long total = in.readLong();
+        return new PartialReport(count, priceSum, cheapest, budapest, budapestMax, budapestSqm, total);
+    }
+
+    /**
+     * Returns the number of properties.
+     *
+     * @return count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the average price per sqm (sections 1 and 6).
+     *
+     * @return average price per sqm, 0 when empty
+     */
+    public double getAveragePricePerSqm() {
+        return count == 0 ? 0.0 : pricePerSqmSum / count;
+    }
+
+    /**
+     * Returns the price of the cheapest property (section 2).
+     *
+     * @return lowest total price
+     */
+    public int getCheapestTotalPrice() {
+        return cheapestTotalPrice;
+    }
+
+    /**
+     * Returns the average sqm per room of the most expensive Budapest property (section 3).
+     *
+     * @return average sqm per room, 0 when there is none
+     */
+    public double getMostExpensiveBudapestSqmPerRoom() {
+        return hasBudapest ? budapestSqmPerRoom : 0.0;
+    }
+
+    /**
+     * Returns the total price of all properties (sections 4 and 7).
+     *
+     * @return sum of total prices
+     */
+    public long getTotalPrices() {
+        return totalPrices;
+    }
+
+    /**
+     * Returns the average total price used by section 5.
+     *
+     * @return average total price, 0 when empty
+     */
+    public double getAverageTotalPrice() {
+        return count == 0 ? 0.0 : (double) totalPrices / count;
+    }
+}
@@ -0,0 +1,258 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Immutable, column-oriented copy of a portfolio. Field values are read once through the getters when the
+ * snapshot is built; afterwards rows can be read (also from many threads) without logging or allocation.
+ * The original listings are kept by reference, so results can point back to them.
+ */
+public final class PortfolioSnapshot {
+    private static final Logger LOGGER = Logger.getLogger(PortfolioSnapshot.class.getName());
+
+    private final RealEstate[] listings;
+    private final int[] cityCodes;        // index into cities
+    private final String[] cities;        // distinct city names as given
+    private final double[] prices;        // price per sqm
+    private final int[] sqms;
+    private final double[] rooms;
+    private final byte[] genres;          // Genre ordinal, -1 if none
+    private final boolean[] panels;
+    private final int[] floors;           // 0 for non-Panel rows
+    private final boolean[] insulated;    // false for non-Panel rows
+    private final int[] totalPrices;      // with PricingRules.DEFAULT, same as getTotalPrice()
+
+    /**
+     * Build a snapshot of the given listings, keeping their iteration order.
+     *
+     * @param source listings to copy
+     */
+    public PortfolioSnapshot(Collection<? extends RealEstate> source) {
+        LOGGER.info("Called PortfolioSnapshot(...) constructor for " + source.size() + " listings");
+        int n = source.size();
+        listings = new RealEstate[n];
+        cityCodes = new int[n];
+        prices = new double[n];
+        sqms = new int[n];
+        rooms = new double[n];
+        genres = new byte[n];
+        panels = new boolean[n];
+        floors = new int[n];
+        insulated = new boolean[n];
+        totalPrices = new int[n];
+
+        Map<String, Integer> cityIndex = new HashMap<>();
+        List<String> cityList = new ArrayList<>();
+        int row = 0;
+        for (RealEstate r : source) {
+            listings[row] = r;
+            String city = r.getCity();
+            Integer code = cityIndex.get(city);
+            if (code == null) {
+                code = cityList.size();
+                cityIndex.put(city, code);
+                cityList.add(city);
+            }
+            cityCodes[row] = code;
+            prices[row] = r.getPrice();
+            sqms[row] = r.getSqm();
+            rooms[row] = r.getNumberOfRooms();
+            Genre genre = r.getGenre();
+            genres[row] = (byte) (genre == null ? -1 : genre.ordinal());
+            if (r instanceof Panel) {
+                Panel p = (Panel) r;
+                panels[row] = true;
+                floors[row] = p.getFloor();
+                insulated[row] = p.isInsulated();
+            }
+            row++;
+        }
+        cities = cityList.toArray(new String[0]);
+
+        double[] modifiers = cityModifiers(PricingRules.DEFAULT);
+        for (int i = 0; i < n; i++) {
+            totalPrices[i] = totalPrice(i, PricingRules.DEFAULT, modifiers);
+        }
+    }
+
+    /**
+     * Number of rows.
+     *
+     * @return row count
+     */
+    public int size() {
+        return listings.length;
+    }
+
+    /**
+     * Number of distinct cities.
+     *
+     * @return city count
+     */
+    public int cityCount() {
+        return cities.length;
+    }
+
+    /**
+     * City name of a city code.
+     *
+     * @param code city code
+     * @return city name (may be null)
+     */
+    public String cityName(int code) {
+        return cities[code];
+    }
+
+    /**
+     * Resolve the city modifier of every city code under the given rules.
+     *
+     * @param rules pricing rules
+     * @return modifiers indexed by city code
+     */
+    public double[] cityModifiers(PricingRules rules) {
+        double[] modifiers = new double[cities.length];
+        for (int c = 0; c < cities.length; c++) {
+            modifiers[c] = rules.cityModifier(cities[c]);
+        }
+        return modifiers;
+    }
+
+    /**
+     * Total price of a row under the given rules.
+     *
+     * @param row       row index
+     * @param rules     pricing rules
+     * @param modifiers city modifiers from {@link #cityModifiers(PricingRules)} for the same rules
+     * @return total price rounded to int
+     */
+    public int totalPrice(int row, PricingRules rules, double[] modifiers) {
+        return rules.totalPrice(prices[row], sqms[row], modifiers[cityCodes[row]], genres[row],
+                panels[row], floors[row], insulated[row]);
+    }
+
+    /**
+     * Returns the original listing of a row.
+     *
+     * @param row row index
+     * @return original listing
+     */
+    public RealEstate listing(int row) {
+        return listings[row];
+    }
+
+    /**
+     * Returns the city code of a row.
+     *
+     * @param row row index
+     * @return city code
+     */
+    public int cityCode(int row) {
+        return cityCodes[row];
+    }
+
+    /**
+     * Returns the city name of a row.
+     *
+     * @param row row index
+     * @return city name
+     */
+    public String city(int row) {
+        return cities[cityCodes[row]];
+    }
+
+    /**
+     * Returns the price per sqm of a row.
+     *
+     * @param row row index
+     * @return price per sqm
+     */
+    public double price(int row) {
+        return prices[row];
+    }
+
+    /**
+     * Returns the square meters of a row.
+     *
+     * @param row row index
+     * @return square meters
+     */
+    public int sqm(int row) {
+        return sqms[row];
+    }
+
+    /**
+     * Returns the number of rooms of a row.
+     *
+     * @param row row index
+     * @return number of rooms
+     */
+    public double rooms(int row) {
+        return rooms[row];
+    }
+
+    /**
+     * Returns the Genre ordinal of a row.
+     *
+     * @param row row index
+     * @return Genre ordinal, -1 if none
+     */
+    public int genreOrdinal(int row) {
+        return genres[row];
+    }
+
+    /**
+     * Returns whether a row is a Panel.
+     *
+     * @param row row index
+     * @return true for Panel rows
+     */
+    public boolean isPanel(int row) {
+        return panels[row];
+    }
+
+    /**
+     * Returns the Panel floor of a row.
+     *
+     * @param row row index
+     * @return Panel floor (0 for other rows)
+     */
+    public int floor(int row) {
+        return floors[row];
+    }
+
+    /**
+     * Returns the Panel insulation flag of a row.
+     *
+     * @param row row index
+     * @return Panel insulation flag (false for other rows)
+     */
+    public boolean isInsulated(int row) {
+        return insulated[row];
+    }
+
+    /**
+     * Returns the total price of a row with the default rules.
+     *
+     * @param row row index
+     * @return total price with the default rules
+     */
+    public int totalPrice(int row) {
+        return totalPrices[row];
+    }
+
+    /**
+     * Average sqm per room of a row, as averageSqmPerRoom().
+     *
+     * @param row row index
+     * @return average sqm per room or 0 if rooms &lt;= 0
+     */
+    public double averageSqmPerRoom(int row) {
+        if (rooms[row] <= 0) return 0.0;
+        return (double) sqms[row] / rooms[row];
+    }
+}
@@ -0,0 +1,160 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Immutable set of pricing rules: city modifiers, Panel floor/insulation multipliers and per-genre discounts.
+ * {@link #DEFAULT} reproduces RealEstate.getTotalPrice() and Panel.getTotalPrice(); the with* methods
+ * return modified copies, so variants can be evaluated without touching the listings.
+ */
+public final class PricingRules {
+    private static final Logger LOGGER = Logger.getLogger(PricingRules.class.getName());
+
+    /** Rules used by RealEstate and Panel. */
+    public static final PricingRules DEFAULT = createDefault();
+
+    private final Map<String, Double> cityModifiers;   // key: trimmed, lower-case city name
+    private final double lowFloorMultiplier;           // floors 0-2
+    private final double topFloorMultiplier;           // floor 10
+    private final double insulationMultiplier;
+    private final int[] genreDiscounts;                // percent, indexed by Genre ordinal
+
+    private PricingRules(Map<String, Double> cityModifiers, double lowFloorMultiplier, double topFloorMultiplier,
+                         double insulationMultiplier, int[] genreDiscounts) {
+        this.cityModifiers = cityModifiers;
+        this.lowFloorMultiplier = lowFloorMultiplier;
+        this.topFloorMultiplier = topFloorMultiplier;
+        this.insulationMultiplier = insulationMultiplier;
+        this.genreDiscounts = genreDiscounts;
+    }
+
+    private static PricingRules createDefault() {
+        Map<String, Double> cities = new HashMap<>();
+        cities.put("budapest", 0.30);      // +30%
+        cities.put("debrecen", 0.20);      // +20%
+        cities.put("nyíregyháza", 0.15);   // +15%
+        cities.put("nyiregyhaza", 0.15);
+        return new PricingRules(cities, 1.05, 0.95, 1.05, new int[Genre.values().length]);
+    }
+
+    /**
+     * Returns rules with a different modifier for a city.
+     *
+     * @param city     city name (case and surrounding whitespace ignored)
+     * @param modifier modifier, e.g. 0.35 for +35%
+     * @return new rules
+     */
+    public PricingRules withCityModifier(String city, double modifier) {
+        LOGGER.info("Called PricingRules.withCityModifier(" + city + ", " + modifier + ")");
+        Map<String, Double> cities = new HashMap<>(cityModifiers);
+        cities.put(normalizeCity(city), modifier);
+        return new PricingRules(cities, lowFloorMultiplier, topFloorMultiplier, insulationMultiplier, genreDiscounts);
+    }
+
+    /**
+     * Returns rules with a different insulation bonus for Panels.
+     *
+     * @param bonus bonus, e.g. 0.08 for +8%
+     * @return new rules
+     */
+    public PricingRules withInsulationBonus(double bonus) {
+        LOGGER.info("Called PricingRules.withInsulationBonus(" + bonus + ")");
+        return new PricingRules(cityModifiers, lowFloorMultiplier, topFloorMultiplier, 1.0 + bonus, genreDiscounts);
+    }
+
+    /**
+     * Returns rules with a different bonus for Panels on floors 0-2.
+     *
+     * @param bonus bonus, e.g. 0.05 for +5%
+     * @return new rules
+     */
+    public PricingRules withLowFloorBonus(double bonus) {
+        LOGGER.info("Called PricingRules.withLowFloorBonus(" + bonus + ")");
+        return new PricingRules(cityModifiers, 1.0 + bonus, topFloorMultiplier, insulationMultiplier, genreDiscounts);
+    }
+
+    /**
+     * Returns rules with a different penalty for Panels on floor 10.
+     *
+     * @param penalty penalty, e.g. 0.05 for -5%
+     * @return new rules
+     */
+    public PricingRules withTopFloorPenalty(double penalty) {
+        LOGGER.info("Called PricingRules.withTopFloorPenalty(" + penalty + ")");
+        return new PricingRules(cityModifiers, lowFloorMultiplier, 1.0 - penalty, insulationMultiplier, genreDiscounts);
+    }
+
+    /**
+     * Returns rules with a discount on the price per sqm of one genre, as makeDiscount would apply it.
+     *
+     * @param genre   genre to discount
+     * @param percent integer percent (if <= 0 no discount)
+     * @return new rules
+     */
+    public PricingRules withDiscount(Genre genre, int percent) {
+        LOGGER.info("Called PricingRules.withDiscount(" + genre + ", " + percent + ")");
+        int[] discounts = Arrays.copyOf(genreDiscounts, genreDiscounts.length);
+        discounts[genre.ordinal()] = percent;
+        return new PricingRules(cityModifiers, lowFloorMultiplier, topFloorMultiplier, insulationMultiplier, discounts);
+    }
+
+    /**
+     * Returns the modifier of a city (0 when the city has none).
+     *
+     * @param city city name
+     * @return city modifier
+     */
+    public double cityModifier(String city) {
+        if (city == null) return 0.0;
+        return cityModifiers.getOrDefault(normalizeCity(city), 0.0);
+    }
+
+    /**
+     * Price per sqm after the genre discount.
+     *
+     * @param price        price per sqm
+     * @param genreOrdinal Genre ordinal, or -1 when the listing has no genre
+     * @return discounted price per sqm
+     */
+    public double discountedPrice(double price, int genreOrdinal) {
+        if (genreOrdinal < 0) return price;
+        int percent = genreDiscounts[genreOrdinal];
+        if (percent <= 0) return price;
+        return price * (1.0 - percent / 100.0);
+    }
+
+    /**
+     * Total price of one listing, with the same arithmetic and rounding as getTotalPrice().
+     *
+     * @param price        price per sqm
+     * @param sqm          square meters
+     * @param cityModifier modifier of the listing's city
+     * @param genreOrdinal Genre ordinal, or -1 when the listing has no genre
+     * @param panel        whether the listing is a Panel
+     * @param floor        Panel floor
+     * @param insulated    Panel insulation flag
+     * @return total price rounded to int
+     */
+    public int totalPrice(double price, int sqm, double cityModifier, int genreOrdinal,
+                          boolean panel, int floor, boolean insulated) {
+        double base = discountedPrice(price, genreOrdinal) * sqm;
+        int total = (int) Math.round(base * (1.0 + cityModifier));
+        if (!panel) return total;
+
+        double panelTotal = total;
+        if (floor >= 0 && floor <= 2) {
+            panelTotal = panelTotal * lowFloorMultiplier;
+        } else if (floor == 10) {
+            panelTotal = panelTotal * topFloorMultiplier;
+        }
+        if (insulated) panelTotal = panelTotal * insulationMultiplier;
+        return (int) Math.round(panelTotal);
+    }
+
+    private static String normalizeCity(String city) {
+        return city.trim().toLowerCase();
+    }
+}
@@ -15,12 +15,19 @@ public class RealEstateAgent {
 
     private static final Logger LOGGER = Logger.getLogger(RealEstateAgent.class.getName());
 
+    static final String LINE_SEPARATOR = "------------------------------------------------------------\n";
+    static final String EMPTY_REPORT = "No properties available.\n";
+    static final String NO_CONDOMINIUMS = "  (none)\n\n";
+
     // TreeSet sorted by total price (ascending), then by city name
     private final TreeSet<RealEstate> properties = new TreeSet<>(
             Comparator.comparingInt(RealEstate::getTotalPrice)
                     .thenComparing(p -> Optional.ofNullable(p.getCity()).orElse("").toLowerCase())
     );
 
+    // rejected line counts of validated loads, per reason
+    private final Map<ValidationResult, Integer> rejectCounts = new EnumMap<>(ValidationResult.class);
+
     /**
      * Constructor. Ensures logging is configured.
      */
@@ -39,6 +46,17 @@ public class RealEstateAgent {
         return Collections.unmodifiableSet(properties);
     }
 
+    /**
+     * Returns an immutable column-oriented snapshot of the current properties (in report order),
+     * e.g. as the shared base portfolio of a {@link ScenarioEngine}.
+     *
+     * @return portfolio snapshot
+     */
+    public PortfolioSnapshot snapshot() {
+        LOGGER.info("Called RealEstateAgent.snapshot()");
+        return new PortfolioSnapshot(properties);
+    }
+
     /**
      * Load properties from file (or sample data if file is missing or unreadable).
      *
@@ -46,6 +64,104 @@ public class RealEstateAgent {
      */
     public void load(String filename) {
         LOGGER.info("Called RealEstateAgent.load(" + filename + ")");
+        List<String> lines = readLines(filename);
+
+        for (String line : lines) {
+            if (line == null) continue;
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            try {
+                RealEstate r = parseLine(line);
+                if (r != null) properties.add(r);
+            } catch (Exception ex) {
+                // keep it simple: skip malformed lines but notify
+                LOGGER.log(Level.SEVERE, "Skipping invalid line: " + line + " -> " + ex.getMessage(), ex);
+            }
+        }
+        LOGGER.info("Finished loading properties. Total properties: " + properties.size());
+    }
+
+    /**
+     * Load properties in validation mode: every line is checked with {@link ListingValidator} first,
+     * so malformed lines are counted per reason instead of throwing and logging a stack trace.
+     * Rejected lines are written in batches to the reject file together with line number and reason.
+     *
+     * @param filename       path to input file
+     * @param rejectFilename reject file to write (null to only count rejects)
+     */
+    public void load(String filename, String rejectFilename) {
+        LOGGER.info("Called RealEstateAgent.load(" + filename + ", " + rejectFilename + ")");
+        List<String> lines = readLines(filename);
+
+        RejectWriter rejects = null;
+        if (rejectFilename != null) {
+            try {
+                rejects = new RejectWriter(rejectFilename, RejectWriter.DEFAULT_BATCH_SIZE);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Error opening reject file, rejects are only counted: " + e.getMessage(), e);
+            }
+        }
+
+        int lineNumber = 0;
+        int rejected = 0;
+        int written = 0;
+        try {
+            for (String line : lines) {
+                lineNumber++;
+                if (line == null) continue;
+                line = line.trim();
+                if (line.isEmpty()) continue;
+
+                String[] parts = line.split("#");
+                ValidationResult result = ListingValidator.validate(parts);
+                if (result == ValidationResult.OK) {
+                    properties.add(parseFields(parts));
+                    continue;
+                }
+
+                rejected++;
+                rejectCounts.merge(result, 1, Integer::sum);
+                if (rejects != null) {
+                    try {
+                        rejects.reject(lineNumber, result, line);
+                    } catch (IOException e) {
+                        LOGGER.log(Level.SEVERE, "Error writing reject file, rejects are only counted: " + e.getMessage(), e);
+                        closeQuietly(rejects);
+                        written = rejects.getWritten();
+                        rejects = null;
+                    }
+                }
+            }
+        } finally {
+            // flush the pending batch even if an unexpected exception escapes the loop
+            if (rejects != null) {
+                closeQuietly(rejects);
+                written = rejects.getWritten();
+            }
+        }
+
+        LOGGER.info("Finished loading properties. Total properties: " + properties.size() + ", rejected lines: " + rejected
+                + ", written to reject file: " + written);
+    }
+
+    /**
+     * Returns the number of rejected lines per reason, summed over all validated loads.
+     *
+     * @return unmodifiable map of reject counts (reasons without rejects are absent)
+     */
+    public Map<ValidationResult, Integer> getRejectCounts() {
+        LOGGER.info("Called RealEstateAgent.getRejectCounts()");
+        return Collections.unmodifiableMap(new EnumMap<>(rejectCounts));
+    }
+
+    /**
+     * Read all lines of the input file (or sample data if file is missing or unreadable).
+     *
+     * @param filename path to input file
+     * @return lines to parse
+     */
+    private List<String> readLines(String filename) {
+        LOGGER.info("Called RealEstateAgent.readLines(" + filename + ")");
         List<String> lines;
         Path path = Paths.get(filename);
         if (Files.exists(path)) {
@@ -60,20 +176,20 @@ public class RealEstateAgent {
             LOGGER.info("'" + filename + "' not found — loading sample data.");
             lines = sampleData();
         }
+        return lines;
+    }
 
-        for (String line : lines) {
-            if (line == null) continue;
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            try {
-                RealEstate r = parseLine(line);
-                if (r != null) properties.add(r);
-            } catch (Exception ex) {
-                // keep it simple: skip malformed lines but notify
-                LOGGER.log(Level.SEVERE, "Skipping invalid line: " + line + " -> " + ex.getMessage(), ex);
-            }
+    /**
+     * Close the reject file, logging instead of throwing on failure.
+     *
+     * @param rejects reject writer to close
+     */
+    private void closeQuietly(RejectWriter rejects) {
+        try {
+            rejects.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error closing reject file: " + e.getMessage(), e);
         }
-        LOGGER.info("Finished loading properties. Total properties: " + properties.size());
     }
 
     /**
@@ -81,7 +197,7 @@ public class RealEstateAgent {
      *
      * @return list of sample data lines
      */
-    private List<String> sampleData() {
+    static List<String> sampleData() {
         LOGGER.info("Called RealEstateAgent.sampleData()");
         return Arrays.asList(
                 "REALESTATE#Budapest#250000#100#4#CONDOMINIUM",
@@ -107,7 +223,16 @@ public class RealEstateAgent {
         LOGGER.info("Called RealEstateAgent.parseLine() for line: " + line);
         String[] parts = line.split("#");
         if (parts.length < 6) throw new IllegalArgumentException("Not enough fields");
+        return parseFields(parts);
+    }
 
+    /**
+     * Build a RealEstate or Panel from the fields of a line.
+     *
+     * @param parts fields of the line (at least 6)
+     * @return RealEstate object or Panel
+     */
+    static RealEstate parseFields(String[] parts) {
         String cls = parts[0].trim();
         String city = parts[1].trim();
         double price = Double.parseDouble(parts[2].trim());
@@ -136,10 +261,9 @@ public class RealEstateAgent {
     public void produceReport(String outputFilename) {
         LOGGER.info("Called RealEstateAgent.produceReport(" + outputFilename + ")");
         StringBuilder sb = new StringBuilder();
-        String lineSeparator = "------------------------------------------------------------\n";
 
         if (properties.isEmpty()) {
-            sb.append("No properties available.\n");
+            sb.append(EMPTY_REPORT);
             writeOutput(outputFilename, sb.toString());
             System.out.println(sb.toString());
             return;
@@ -147,56 +271,43 @@ public class RealEstateAgent {
 
         int count = properties.size();
 
-        sb.append(lineSeparator);
-        sb.append("REAL ESTATE REPORT\n");
-        sb.append(lineSeparator);
-
         // 1) Average square meter price
         double avgPricePerSqm = properties.stream()
                 .mapToDouble(RealEstate::getPrice)
                 .average()
                 .orElse(0.0);
-        sb.append(String.format("1) Average square meter price of real estate: %.2f%n%n", avgPricePerSqm));
 
         // 2) Price of the cheapest property
         RealEstate cheapest = properties.first();
-        sb.append(String.format("2) Price of the cheapest property: %d%n%n", cheapest.getTotalPrice()));
 
         // 3) Average square meter per room of the most expensive apartment in Budapest
         Optional<RealEstate> mostExpBudapest = properties.stream()
                 .filter(p -> p.getCity() != null && p.getCity().trim().equalsIgnoreCase("Budapest"))
                 .max(Comparator.comparingInt(RealEstate::getTotalPrice));
         double avgSqmPerRoomMostExpBud = mostExpBudapest.map(RealEstate::averageSqmPerRoom).orElse(0.0);
-        sb.append(String.format("3) Average sqm per room of the most expensive apartment in Budapest: %.2f%n%n", avgSqmPerRoomMostExpBud));
 
         // 4) Total price of all properties
         long totalPrices = properties.stream().mapToLong(RealEstate::getTotalPrice).sum();
-        sb.append(String.format("4) Total price of all properties: %d%n%n", totalPrices));
+
+        sb.append(reportHead(avgPricePerSqm, cheapest.getTotalPrice(), avgSqmPerRoomMostExpBud, totalPrices));
 
         // 5) List of CONDOMINIUM properties under average total price
         double averageTotalPrice = (double) totalPrices / count;
-        sb.append("5) CONDOMINIUM properties with total price <= average price of properties:\n");
-        sb.append(lineSeparator);
-
         List<RealEstate> condosUnderAvg = properties.stream()
                 .filter(p -> p.getGenre() == Genre.CONDOMINIUM)
                 .filter(p -> p.getTotalPrice() <= averageTotalPrice)
                 .collect(Collectors.toList());
 
         if (condosUnderAvg.isEmpty()) {
-            sb.append("  (none)\n\n");
+            sb.append(NO_CONDOMINIUMS);
         } else {
             for (RealEstate r : condosUnderAvg) {
-                sb.append(r.toString()).append("\n");
-                sb.append(lineSeparator);
+                sb.append(reportEntry(r.toString()));
             }
         }
 
-        // 6) Average square meter price (again)
-        sb.append(String.format("6) Average square meter price of real estate (repeated): %.2f%n%n", avgPricePerSqm));
-
-        // 7) Total price of properties (again)
-        sb.append(String.format("7) Total price of properties (repeated): %d%n", totalPrices));
+        // 6) and 7) repeated values
+        sb.append(reportTail(avgPricePerSqm, totalPrices));
 
         // print and write
         String result = sb.toString();
@@ -205,6 +316,52 @@ public class RealEstateAgent {
         LOGGER.info("Report produced and written to " + outputFilename);
     }
 
+    /**
+     * Report header and sections 1-4, up to the heading of the section 5 list.
+     *
+     * @param avgPricePerSqm          average price per sqm
+     * @param cheapestTotalPrice      total price of the cheapest property
+     * @param avgSqmPerRoomMostExpBud average sqm per room of the most expensive property in Budapest
+     * @param totalPrices             sum of total prices
+     * @return report text
+     */
+    static String reportHead(double avgPricePerSqm, int cheapestTotalPrice, double avgSqmPerRoomMostExpBud,
+                             long totalPrices) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(LINE_SEPARATOR);
+        sb.append("REAL ESTATE REPORT\n");
+        sb.append(LINE_SEPARATOR);
+        sb.append(String.format("1) Average square meter price of real estate: %.2f%n%n", avgPricePerSqm));
+        sb.append(String.format("2) Price of the cheapest property: %d%n%n", cheapestTotalPrice));
+        sb.append(String.format("3) Average sqm per room of the most expensive apartment in Budapest: %.2f%n%n", avgSqmPerRoomMostExpBud));
+        sb.append(String.format("4) Total price of all properties: %d%n%n", totalPrices));
+        sb.append("5) CONDOMINIUM properties with total price <= average price of properties:\n");
+        sb.append(LINE_SEPARATOR);
+        return sb.toString();
+    }
+
+    /**
+     * One entry of the section 5 list.
+     *
+     * @param listingText toString() of the listing
+     * @return report text
+     */
+    static String reportEntry(String listingText) {
+        return listingText + "\n" + LINE_SEPARATOR;
+    }
+
+    /**
+     * Report sections 6 and 7.
+     *
+     * @param avgPricePerSqm average price per sqm
+     * @param totalPrices    sum of total prices
+     * @return report text
+     */
+    static String reportTail(double avgPricePerSqm, long totalPrices) {
+        return String.format("6) Average square meter price of real estate (repeated): %.2f%n%n", avgPricePerSqm)
+                + String.format("7) Total price of properties (repeated): %d%n", totalPrices);
+    }
+
     /**
      * Write the report content to file.
      *
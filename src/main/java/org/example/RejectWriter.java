@@ -0,0 +1,89 @@
+package org.example;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.logging.Logger;
+
+/**
+ * Collects rejected input lines and writes them to a reject file in batches.
+ * Each record is written as "lineNumber#REASON#original line".
+ */
+public class RejectWriter implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(RejectWriter.class.getName());
+
+    /** Number of rejected lines buffered before they are written out. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final BufferedWriter writer;
+    private final int batchSize;
+    private final StringBuilder batch = new StringBuilder();
+    private int pending;
+    private int written;
+
+    /**
+     * Opens (truncates) the reject file.
+     *
+     * @param filename  reject file path
+     * @param batchSize rejected lines buffered per write
+     * @throws IOException if the file cannot be opened
+     */
+    public RejectWriter(String filename, int batchSize) throws IOException {
+        LOGGER.info("Called RejectWriter(" + filename + ", " + batchSize + ") constructor");
+        this.writer = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Buffers one rejected line; writes the batch when it is full.
+     *
+     * @param lineNumber 1-based line number in the input
+     * @param reason     reject reason
+     * @param line       original line
+     * @throws IOException if writing the batch fails
+     */
+    public void reject(int lineNumber, ValidationResult reason, String line) throws IOException {
+        batch.append(lineNumber).append('#').append(reason.name()).append('#').append(line).append('\n');
+        if (++pending >= batchSize) flush();
+    }
+
+    /**
+     * Writes buffered rejected lines to the file.
+     *
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+        if (pending == 0) return;
+        writer.append(batch);
+        writer.flush();
+        written += pending;
+        batch.setLength(0);
+        pending = 0;
+    }
+
+    /**
+     * Returns the number of rejected lines written so far.
+     *
+     * @return written record count
+     */
+    public int getWritten() {
+        return written;
+    }
+
+    /**
+     * Flushes remaining lines and closes the file.
+     *
+     * @throws IOException if writing or closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        LOGGER.info("Called RejectWriter.close()");
+        try {
+            flush();
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example;
+
+/**
+ * A named what-if pricing variant, e.g. "Budapest modifier to 35%".
+ */
+public final class Scenario {
+    private final String name;
+    private final PricingRules rules;
+
+    /**
+     * Create a scenario.
+     *
+     * @param name  scenario name used in results
+     * @param rules pricing rules of the scenario
+     */
+    public Scenario(String name, PricingRules rules) {
+        this.name = name;
+        this.rules = rules;
+    }
+
+    /**
+     * Returns the scenario name.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the pricing rules.
+     *
+     * @return rules
+     */
+    public PricingRules getRules() {
+        return rules;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example;
+
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates pricing scenarios against an immutable portfolio snapshot. Listings are never modified;
+ * all scenarios read the same snapshot columns, and scenarios are evaluated in parallel.
+ */
+public class ScenarioEngine {
+    private static final Logger LOGGER = Logger.getLogger(ScenarioEngine.class.getName());
+
+    private final PortfolioSnapshot base;
+    private final boolean[] budapestCities;   // indexed by city code
+
+    /**
+     * Create an engine over a snapshot.
+     *
+     * @param base base portfolio shared by all scenarios
+     */
+    public ScenarioEngine(PortfolioSnapshot base) {
+        LOGGER.info("Called ScenarioEngine(...) constructor for " + base.size() + " listings");
+        this.base = base;
+        this.budapestCities = new boolean[base.cityCount()];
+        for (int c = 0; c < budapestCities.length; c++) {
+            String city = base.cityName(c);
+            budapestCities[c] = city != null && city.trim().equalsIgnoreCase("Budapest");
+        }
+    }
+
+    /**
+     * Evaluate many scenarios in parallel.
+     *
+     * @param scenarios scenarios to evaluate
+     * @return results in the order of the scenarios
+     */
+    public List<ScenarioResult> evaluateAll(List<Scenario> scenarios) {
+        LOGGER.info("Called ScenarioEngine.evaluateAll() for " + scenarios.size() + " scenarios");
+        return scenarios.parallelStream()
+                .map(this::evaluate)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Evaluate one scenario.
+     *
+     * @param scenario scenario to evaluate
+     * @return report aggregates of the scenario
+     */
+    public ScenarioResult evaluate(Scenario scenario) {
+        LOGGER.info("Called ScenarioEngine.evaluate(" + scenario.getName() + ")");
+        PricingRules rules = scenario.getRules();
+        double[] modifiers = base.cityModifiers(rules);
+        int n = base.size();
+        int condominium = Genre.CONDOMINIUM.ordinal();
+
+        // pass 1: everything except section 5, which needs the average total price
+        int[] totals = new int[n];
+        double priceSum = 0.0;
+        long totalSum = 0;
+        int cheapest = Integer.MAX_VALUE;
+        int budapestMax = Integer.MIN_VALUE;
+        int budapestRow = -1;
+        for (int i = 0; i < n; i++) {
+            int total = base.totalPrice(i, rules, modifiers);
+            totals[i] = total;
+            priceSum += rules.discountedPrice(base.price(i), base.genreOrdinal(i));
+            totalSum += total;
+            if (total < cheapest) cheapest = total;
+            if (budapestCities[base.cityCode(i)] && total > budapestMax) {
+                budapestMax = total;
+                budapestRow = i;
+            }
+        }
+        if (n == 0) return new ScenarioResult(scenario.getName(), 0, 0.0, 0, 0.0, 0, 0);
+
+        // pass 2: section 5
+        double averageTotal = (double) totalSum / n;
+        int condos = 0;
+        for (int i = 0; i < n; i++) {
+            if (base.genreOrdinal(i) == condominium && totals[i] <= averageTotal) condos++;
+        }
+
+        double budapestSqmPerRoom = budapestRow < 0 ? 0.0 : base.averageSqmPerRoom(budapestRow);
+        return new ScenarioResult(scenario.getName(), n, priceSum / n, cheapest,
+                budapestSqmPerRoom, totalSum, condos);
+    }
+}
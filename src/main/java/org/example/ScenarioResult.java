@@ -0,0 +1,124 @@
+package org.example;
+
+/**
+ * Report aggregates of one scenario, matching the sections of RealEstateAgent.produceReport().
+ */
+public final class ScenarioResult {
+    private final String name;
+    private final int count;
+    private final double averagePricePerSqm;
+    private final int cheapestTotalPrice;
+    private final double mostExpensiveBudapestSqmPerRoom;
+    private final long totalPrice;
+    private final int condominiumsUnderAverage;
+
+    /**
+     * Create a result.
+     *
+     * @param name                            scenario name
+     * @param count                           number of listings
+     * @param averagePricePerSqm              average price per sqm (after discounts)
+     * @param cheapestTotalPrice              lowest total price
+     * @param mostExpensiveBudapestSqmPerRoom average sqm per room of the most expensive Budapest listing
+     * @param totalPrice                      sum of total prices
+     * @param condominiumsUnderAverage        CONDOMINIUM listings with total price &lt;= average total price
+     */
+    public ScenarioResult(String name, int count, double averagePricePerSqm, int cheapestTotalPrice,
+                          double mostExpensiveBudapestSqmPerRoom, long totalPrice, int condominiumsUnderAverage) {
+        this.name = name;
+        this.count = count;
+        this.averagePricePerSqm = averagePricePerSqm;
+        this.cheapestTotalPrice = cheapestTotalPrice;
+        this.mostExpensiveBudapestSqmPerRoom = mostExpensiveBudapestSqmPerRoom;
+        this.totalPrice = totalPrice;
+        this.condominiumsUnderAverage = condominiumsUnderAverage;
+    }
+
+    /**
+     * Returns the scenario name.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of listings.
+     *
+     * @return count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the average price per sqm (report sections 1 and 6).
+     *
+     * @return average price per sqm
+     */
+    public double getAveragePricePerSqm() {
+        return averagePricePerSqm;
+    }
+
+    /**
+     * Returns the price of the cheapest listing (report section 2).
+     *
+     * @return lowest total price
+     */
+    public int getCheapestTotalPrice() {
+        return cheapestTotalPrice;
+    }
+
+    /**
+     * Returns the average sqm per room of the most expensive listing in Budapest (report section 3).
+     *
+     * @return average sqm per room, 0 when there is no Budapest listing
+     */
+    public double getMostExpensiveBudapestSqmPerRoom() {
+        return mostExpensiveBudapestSqmPerRoom;
+    }
+
+    /**
+     * Returns the total price of all listings (report sections 4 and 7).
+     *
+     * @return sum of total prices
+     */
+    public long getTotalPrice() {
+        return totalPrice;
+    }
+
+    /**
+     * Returns the average total price.
+     *
+     * @return average total price, 0 when empty
+     */
+    public double getAverageTotalPrice() {
+        return count == 0 ? 0.0 : (double) totalPrice / count;
+    }
+
+    /**
+     * Returns how many CONDOMINIUM listings are at or under the average total price (report section 5).
+     *
+     * @return condominium count
+     */
+    public int getCondominiumsUnderAverage() {
+        return condominiumsUnderAverage;
+    }
+
+    /**
+     * Human readable representation.
+     *
+     * @return string with the aggregates
+     */
+    @Override
+    public String toString() {
+        return "ScenarioResult [name = " + name
+                + ", count = " + count
+                + ", avgPricePerSqm = " + String.format("%.2f", averagePricePerSqm)
+                + ", cheapest = " + cheapestTotalPrice
+                + ", budapestSqmPerRoom = " + String.format("%.2f", mostExpensiveBudapestSqmPerRoom)
+                + ", total = " + totalPrice
+                + ", condosUnderAvg = " + condominiumsUnderAverage + "]";
+    }
+}
@@ -0,0 +1,266 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.logging.Logger;
+
+/**
+ * Produces the RealEstateAgent report with N local worker processes ({@link ShardWorker}), so no single JVM
+ * has to hold the whole portfolio.
+ * <p>
+ * The input is split into shard files by (total price, lower-case city), the key the agent's TreeSet
+ * de-duplicates on, so duplicates always meet in the same shard and the merged report matches
+ * produceReport(). Round 1 merges the workers' {@link PartialReport}s; round 2 sends the global average
+ * total price back and k-way merges the workers' sorted section 5 lists straight into the output.
+ */
+public class ShardCoordinator {
+    private static final Logger LOGGER = Logger.getLogger(ShardCoordinator.class.getName());
+
+    private final int workers;
+    private final Path workDir;
+
+    /**
+     * Create a coordinator.
+     *
+     * @param workers number of worker processes (at least 1)
+     * @param workDir directory for shard files and worker logs
+     */
+    public ShardCoordinator(int workers, Path workDir) {
+        LoggerConfig.setup();
+        LOGGER.info("Called ShardCoordinator(" + workers + ", " + workDir + ") constructor");
+        this.workers = Math.max(1, workers);
+        this.workDir = workDir;
+    }
+
+    /**
+     * Produce the report for the input file (sample data if missing), print it and write it to the output file.
+     *
+     * @param inputFilename  input file
+     * @param outputFilename output file to write the report
+     * @throws IOException if splitting the input, a worker or writing the output fails
+     */
+    public void produceReport(String inputFilename, String outputFilename) throws IOException {
+        LOGGER.info("Called ShardCoordinator.produceReport(" + inputFilename + ", " + outputFilename + ")");
+        Files.createDirectories(workDir);
+        List<Path> shards = split(inputFilename);
+        List<Process> processes = new ArrayList<>();
+        try {
+            for (int i = 0; i < shards.size(); i++) {
+                processes.add(startWorker(shards.get(i), workDir.resolve("shard-" + i + ".log")));
+            }
+
+            // round 1: sections 1-4 and the global average
+            List<DataInputStream> inputs = new ArrayList<>();
+            PartialReport merged = null;
+            for (Process p : processes) {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(p.getInputStream()));
+                inputs.add(in);
+                PartialReport partial = PartialReport.readFrom(in);
+                merged = merged == null ? partial : merged.merge(partial);
+            }
+
+            // round 2: section 5 filtered on the global average
+            double averageTotalPrice = merged.getAverageTotalPrice();
+            for (Process p : processes) {
+                DataOutputStream out = new DataOutputStream(p.getOutputStream());
+                out.writeDouble(averageTotalPrice);
+                out.close();
+            }
+            writeReport(merged, inputs, outputFilename);
+
+            for (int i = 0; i < processes.size(); i++) {
+                int exit = processes.get(i).waitFor();
+                if (exit != 0) throw new IOException("Worker " + i + " exited with " + exit + ", see shard-" + i + ".log");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for workers", e);
+        } finally {
+            for (Process p : processes) {
+                if (p.isAlive()) p.destroyForcibly();
+            }
+            for (Path shard : shards) Files.deleteIfExists(shard);
+        }
+        LOGGER.info("Report produced and written to " + outputFilename);
+    }
+
+    /**
+     * Split valid input lines into shard files by (total price, lower-case city). Invalid lines are skipped.
+     *
+     * @param inputFilename input file (sample data if missing)
+     * @return shard files
+     * @throws IOException if reading or writing fails
+     */
+    private List<Path> split(String inputFilename) throws IOException {
+        LOGGER.info("Called ShardCoordinator.split(" + inputFilename + ")");
+        List<Path> shards = new ArrayList<>();
+        List<BufferedWriter> writers = new ArrayList<>();
+        int skipped = 0;
+        try {
+            for (int i = 0; i < workers; i++) {
+                Path shard = workDir.resolve("shard-" + i + ".txt").toAbsolutePath();
+                shards.add(shard);
+                writers.add(Files.newBufferedWriter(shard, StandardCharsets.UTF_8));
+            }
+
+            Path input = Paths.get(inputFilename);
+            if (Files.exists(input)) {
+                try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!route(line, writers)) skipped++;
+                    }
+                }
+            } else {
+                LOGGER.info("'" + inputFilename + "' not found — splitting sample data.");
+                for (String line : RealEstateAgent.sampleData()) {
+                    if (!route(line, writers)) skipped++;
+                }
+            }
+        } finally {
+            for (BufferedWriter w : writers) w.close();
+        }
+        LOGGER.info("Split input into " + workers + " shards, skipped invalid lines: " + skipped);
+        return shards;
+    }
+
+    /**
+     * Append a line to its shard.
+     *
+     * @return false if the line is invalid
+     */
+    private boolean route(String line, List<BufferedWriter> writers) throws IOException {
+        line = line.trim();
+        if (line.isEmpty()) return true;
+        String[] parts = line.split("#");
+        if (ListingValidator.validate(parts) != ValidationResult.OK) return false;
+
+        String city = parts[1].trim();
+        boolean panel = ListingValidator.isPanel(parts[0]);
+        int floor = panel ? Integer.parseInt(parts[6].trim()) : 0;
+        String ins = panel ? parts[7].trim().toLowerCase() : "";
+        boolean insulated = ins.equals("yes") || ins.equals("y") || ins.equals("true");
+        int total = PricingRules.DEFAULT.totalPrice(Double.parseDouble(parts[2].trim()), Integer.parseInt(parts[3].trim()),
+                PricingRules.DEFAULT.cityModifier(city), ListingValidator.genreOf(parts[5]).ordinal(), panel, floor, insulated);
+
+        int shard = Math.floorMod(Objects.hash(total, city.toLowerCase()), writers.size());
+        BufferedWriter w = writers.get(shard);
+        w.write(line);
+        w.newLine();
+        return true;
+    }
+
+    private Process startWorker(Path shard, Path log) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        // workers run in workDir, so relative class path entries are resolved here
+        StringBuilder classPath = new StringBuilder();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (classPath.length() > 0) classPath.append(File.pathSeparatorChar);
+            classPath.append(Paths.get(entry).toAbsolutePath());
+        }
+        ProcessBuilder pb = new ProcessBuilder(java, "-cp", classPath.toString(),
+                ShardWorker.class.getName(), shard.toString());
+        pb.directory(workDir.toFile());
+        pb.redirectError(log.toFile());
+        LOGGER.info("Starting worker for " + shard);
+        return pb.start();
+    }
+
+    /**
+     * Write the report like produceReport(): sections 1-4 from the merged partials, section 5 merged from the
+     * workers' sorted lists by (total price, lower-case city), then sections 6-7.
+     */
+    private void writeReport(PartialReport merged, List<DataInputStream> inputs, String outputFilename) throws IOException {
+        LOGGER.info("Called ShardCoordinator.writeReport(" + outputFilename + ")");
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(Paths.get(outputFilename)))) {
+            ReportSink sink = new ReportSink(file);
+            if (merged.getCount() == 0) {
+                // workers still send an empty section 5 list
+                for (DataInputStream in : inputs) new Entry(in).next();
+                sink.write(RealEstateAgent.EMPTY_REPORT);
+            } else {
+                sink.write(RealEstateAgent.reportHead(merged.getAveragePricePerSqm(), merged.getCheapestTotalPrice(),
+                        merged.getMostExpensiveBudapestSqmPerRoom(), merged.getTotalPrices()));
+
+                PriorityQueue<Entry> queue = new PriorityQueue<>(
+                        Comparator.comparingInt((Entry e) -> e.total).thenComparing(e -> e.city));
+                for (DataInputStream in : inputs) {
+                    Entry e = new Entry(in);
+                    if (e.next()) queue.add(e);
+                }
+                boolean any = false;
+                while (!queue.isEmpty()) {
+                    Entry e = queue.poll();
+                    sink.write(e.text);
+                    sink.write(RealEstateAgent.reportEntry(""));   // line break and separator after the entry
+                    any = true;
+                    if (e.next()) queue.add(e);
+                }
+                if (!any) sink.write(RealEstateAgent.NO_CONDOMINIUMS);
+
+                sink.write(RealEstateAgent.reportTail(merged.getAveragePricePerSqm(), merged.getTotalPrices()));
+            }
+        }
+        System.out.println();
+        System.out.println("Report saved to " + outputFilename);
+    }
+
+    /**
+     * Cursor over one worker's section 5 list.
+     */
+    private static final class Entry {
+        private final DataInputStream in;
+        private int total;
+        private String city;
+        private byte[] text;
+
+        Entry(DataInputStream in) {
+            this.in = in;
+        }
+
+        boolean next() throws IOException {
+            if (!in.readBoolean()) return false;
+            total = in.readInt();
+            city = in.readUTF();
+            text = new byte[in.readInt()];
+            in.readFully(text);
+            return true;
+        }
+    }
+
+    /**
+     * Writes report text both to the output file and the console.
+     */
+    private static final class ReportSink {
+        private final OutputStream file;
+
+        ReportSink(OutputStream file) {
+            this.file = file;
+        }
+
+        void write(String s) throws IOException {
+            write(s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        void write(byte[] bytes) throws IOException {
+            file.write(bytes);
+            System.out.write(bytes, 0, bytes.length);
+        }
+    }
+}
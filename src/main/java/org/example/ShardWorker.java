@@ -0,0 +1,84 @@
+package org.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Worker process of {@link ShardCoordinator}. Loads one shard file and talks to the coordinator over
+ * stdin/stdout:
+ * <ol>
+ *     <li>writes its {@link PartialReport} to stdout,</li>
+ *     <li>reads the global average total price (a double) from stdin,</li>
+ *     <li>writes its CONDOMINIUM properties at or under that average, in report order, then exits.</li>
+ * </ol>
+ * Each section 5 entry is written as: true, total price, lower-case city, length and UTF-8 bytes of toString();
+ * the list ends with false.
+ */
+public final class ShardWorker {
+    private static final Logger LOGGER = Logger.getLogger(ShardWorker.class.getName());
+
+    private ShardWorker() { /* utility */ }
+
+    /**
+     * Worker entry point.
+     *
+     * @param args shard file
+     */
+    public static void main(String[] args) {
+        // stdout carries the binary protocol; anything printed goes to stderr instead
+        PrintStream protocolOut = System.out;
+        System.setOut(System.err);
+        try {
+            run(args[0], System.in, protocolOut);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Shard worker failed: " + e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run both rounds for one shard.
+     *
+     * @param shardFile shard input file
+     * @param in        stream from the coordinator
+     * @param out       stream to the coordinator
+     * @throws IOException if the coordinator streams fail
+     */
+    static void run(String shardFile, InputStream in, OutputStream out) throws IOException {
+        LOGGER.info("Called ShardWorker.run(" + shardFile + ")");
+        RealEstateAgent agent = new RealEstateAgent();
+        agent.load(shardFile);
+        Collection<RealEstate> properties = agent.getProperties();
+
+        DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(out));
+        PartialReport.of(properties).writeTo(dataOut);
+        dataOut.flush();
+
+        double averageTotalPrice = new DataInputStream(new BufferedInputStream(in)).readDouble();
+        for (RealEstate r : properties) {
+            if (r.getGenre() != Genre.CONDOMINIUM) continue;
+            int total = r.getTotalPrice();
+            if (total > averageTotalPrice) continue;
+            byte[] text = r.toString().getBytes(StandardCharsets.UTF_8);
+            dataOut.writeBoolean(true);
+            dataOut.writeInt(total);
+            dataOut.writeUTF(Optional.ofNullable(r.getCity()).orElse("").toLowerCase());
+            dataOut.writeInt(text.length);
+            dataOut.write(text);
+        }
+        dataOut.writeBoolean(false);
+        dataOut.flush();
+        LOGGER.info("Shard " + shardFile + " done");
+    }
+}
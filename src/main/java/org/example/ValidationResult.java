@@ -0,0 +1,15 @@
+package org.example;
+
+/**
+ * Result codes of validating one input line. OK means the line can be parsed, every other value is a reject reason.
+ */
+public enum ValidationResult {
+    OK,
+    NOT_ENOUGH_FIELDS,
+    INVALID_PRICE,
+    INVALID_SQM,
+    INVALID_ROOMS,
+    UNKNOWN_GENRE,
+    MISSING_PANEL_FIELDS,
+    INVALID_FLOOR
+}
@@ -0,0 +1,286 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for RealEstateAgent loading and portfolio-level features.
+ */
+public class RealEstateAgentTest {
+
+    @TempDir
+    Path tempDir;
+
+    private RealEstateAgent agent;
+
+    @BeforeEach
+    void setup() {
+        // ensure logging is configured for tests
+        LoggerConfig.setup();
+        agent = new RealEstateAgent();
+    }
+
+    // 1st Test
+    @Test
+    void testValidatedLoadRejectsMalformedLines() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Path rejects = tempDir.resolve("rejects.txt");
+        Files.write(input, List.of(
+                "REALESTATE#Budapest#250000#100#4#CONDOMINIUM",
+                "PANEL#Debrecen#120000#35#2#CONDOMINIUM#0#yes",
+                "",
+                "REALESTATE#Budapest#abc#100#4#CONDOMINIUM",
+                "PANEL#Debrecen#120000#35#2#CONDOMINIUM",
+                "REALESTATE#Szeged#1#2",
+                "REALESTATE#Szeged#100000#50#2#CASTLE"
+        ), StandardCharsets.UTF_8);
+
+        agent.load(input.toString(), rejects.toString());
+
+        assertEquals(2, agent.getProperties().size(), "Only valid lines should be loaded");
+        Map<ValidationResult, Integer> counts = agent.getRejectCounts();
+        assertEquals(1, counts.get(ValidationResult.INVALID_PRICE));
+        assertEquals(1, counts.get(ValidationResult.MISSING_PANEL_FIELDS));
+        assertEquals(1, counts.get(ValidationResult.NOT_ENOUGH_FIELDS));
+        assertEquals(1, counts.get(ValidationResult.UNKNOWN_GENRE));
+
+        List<String> rejected = Files.readAllLines(rejects, StandardCharsets.UTF_8);
+        assertEquals(4, rejected.size(), "Every rejected line should be written");
+        assertEquals("4#INVALID_PRICE#REALESTATE#Budapest#abc#100#4#CONDOMINIUM", rejected.get(0));
+
+        // a genre the parser cannot resolve is rejected, and the lines after it still load
+        Files.write(input, List.of(
+                "REALESTATE#Budapest#abc#100#4#CONDOMINIUM",
+                "REALESTATE#Szeged#100000#50#2#FAM\u0130LYHOUSE",
+                "REALESTATE#Szeged#100000#50#2#FAMILYHOUSE"
+        ), StandardCharsets.UTF_8);
+        RealEstateAgent other = new RealEstateAgent();
+        other.load(input.toString(), rejects.toString());
+        assertEquals(1, other.getProperties().size());
+        assertEquals(2, Files.readAllLines(rejects, StandardCharsets.UTF_8).size(), "Both rejects should be flushed");
+    }
+
+    // 2nd Test
+    @Test
+    void testValidatorAcceptsWhatParserAccepts() {
+        assertEquals(ValidationResult.OK,
+                ListingValidator.validate("PANEL# Debrecen # -1.5e3 # 35 # 2 # condominium # 0 # no".split("#")));
+        assertEquals(ValidationResult.INVALID_SQM,
+                ListingValidator.validate("REALESTATE#Debrecen#1000#3000000000#2#FARM".split("#")));
+        assertEquals(ValidationResult.INVALID_ROOMS,
+                ListingValidator.validate("REALESTATE#Debrecen#1000#30#two#FARM".split("#")));
+
+        // everything Integer.parseInt / Double.parseDouble accept must validate too
+        assertEquals(ValidationResult.OK,
+                ListingValidator.validate("REALESTATE#Debrecen#250000d#00000000100#2#FARM".split("#")));
+        assertEquals(ValidationResult.OK,
+                ListingValidator.validate("REALESTATE#Debrecen#0x1p3#30#NaN#FARM".split("#")));
+        assertEquals(ValidationResult.OK,
+                ListingValidator.validate("PANEL#Debrecen#1000#30#2#FARM#-00000002147483648#no".split("#")));
+        assertEquals(ValidationResult.INVALID_FLOOR,
+                ListingValidator.validate("PANEL#Debrecen#1000#30#2#FARM#2147483648#no".split("#")));
+        assertEquals(ValidationResult.INVALID_PRICE,
+                ListingValidator.validate("REALESTATE#Debrecen#0x1#30#2#FARM".split("#")));
+
+        // genre names are upper-cased like Genre.valueOf(s.trim().toUpperCase()), not compared ignoring case
+        assertEquals(ValidationResult.OK,
+                ListingValidator.validate("REALESTATE#Debrecen#1000#30#2# familyhouse ".split("#")));
+        assertEquals(ValidationResult.UNKNOWN_GENRE,
+                ListingValidator.validate("REALESTATE#Debrecen#1000#30#2#FAM\u0130LYHOUSE".split("#")));
+    }
+
+    // 3rd Test
+    @Test
+    void testScenarioDoesNotMutateListings() {
+        agent.load(tempDir.resolve("missing.txt").toString()); // falls back to sample data
+        long liveTotal = agent.getProperties().stream().mapToLong(RealEstate::getTotalPrice).sum();
+
+        ScenarioEngine engine = new ScenarioEngine(agent.snapshot());
+        List<ScenarioResult> results = engine.evaluateAll(List.of(
+                new Scenario("base", PricingRules.DEFAULT),
+                new Scenario("farm -10%", PricingRules.DEFAULT.withDiscount(Genre.FARM, 10))));
+
+        assertEquals(liveTotal, results.get(0).getTotalPrice(), "Default rules should match getTotalPrice()");
+        assertEquals(liveTotal, agent.getProperties().stream().mapToLong(RealEstate::getTotalPrice).sum(),
+                "Listings must not change");
+
+        agent.getProperties().stream().filter(p -> p.getGenre() == Genre.FARM).forEach(p -> p.makeDiscount(10));
+        long discountedTotal = agent.getProperties().stream().mapToLong(RealEstate::getTotalPrice).sum();
+        assertEquals(discountedTotal, results.get(1).getTotalPrice(), "Scenario discount should match makeDiscount");
+    }
+
+    // 4th Test
+    @Test
+    void testNearestComparables() {
+        RealEstate subject = new RealEstate("Budapest", 200000, 80, 3, Genre.CONDOMINIUM);
+        RealEstate close = new RealEstate("Budapest", 205000, 82, 3, Genre.CONDOMINIUM);
+        RealEstate far = new RealEstate("Budapest", 400000, 150, 6, Genre.CONDOMINIUM);
+        RealEstate otherCity = new RealEstate("Debrecen", 200000, 80, 3, Genre.CONDOMINIUM);
+        Panel panel = new Panel("Budapest", 200000, 80, 3, Genre.CONDOMINIUM, 3, false);
+
+        ComparablesIndex index = new ComparablesIndex(new PortfolioSnapshot(List.of(subject, far, otherCity, panel)));
+        index.add(close);
+
+        List<RealEstate> comps = index.nearest(subject, 5);
+        assertEquals(List.of(close, far), comps, "Only same city, genre and kind, nearest first");
+        assertTrue(index.nearest(panel, 3).isEmpty(), "Panel has no other Panel comparables");
+        assertEquals(List.of(close, far), index.nearest(subject, Integer.MAX_VALUE), "k is capped by the partition size");
+    }
+
+    // 5th Test
+    @Test
+    void testNearestComparablesAfterSortedInserts() {
+        ComparablesIndex index = new ComparablesIndex();
+        List<RealEstate> listings = new ArrayList<>();
+        int n = 4096;
+        for (int i = 0; i < n; i++) {
+            RealEstate r = new RealEstate("Szeged", 100000 + i * 100, 50 + i, 3, Genre.FARM);
+            listings.add(r);
+            index.add(r);
+        }
+
+        assertTrue(index.maxHeight() <= 3 * 12, "Sorted inserts should keep the tree balanced, height " + index.maxHeight());
+        RealEstate subject = listings.get(2000);
+        assertEquals(List.of(listings.get(1999), listings.get(2001)), index.nearest(subject, 2).stream()
+                .sorted(Comparator.comparingInt(RealEstate::getSqm)).toList(), "Neighbours by sqm and price");
+    }
+
+    // 6th Test
+    @Test
+    void testShardedReportMatchesSingleProcessReport() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        List<String> lines = new ArrayList<>(RealEstateAgent.sampleData());
+        lines.add("REALESTATE#Szeged#120000#00000000100#3#CONDOMINIUM");      // zero-padded sqm
+        lines.add("PANEL#Budapest#250000d#0070#3#CONDOMINIUM#04#no");          // suffixed price, padded ints
+        lines.add("REALESTATE#Budapest#250000.0#0100#4#CONDOMINIUM");          // duplicate of a sample listing
+        lines.add("REALESTATE#Budapest#abc#100#4#CONDOMINIUM");                // invalid, skipped by both
+        Files.write(input, lines, StandardCharsets.UTF_8);
+        Path single = tempDir.resolve("single.txt");
+        Path sharded = tempDir.resolve("sharded.txt");
+
+        agent.load(input.toString());
+        assertEquals(12, agent.getProperties().size(), "Padded and suffixed lines load, the duplicate does not");
+        agent.produceReport(single.toString());
+        new ShardCoordinator(3, tempDir.resolve("work")).produceReport(input.toString(), sharded.toString());
+
+        assertEquals(Files.readString(single, StandardCharsets.UTF_8), Files.readString(sharded, StandardCharsets.UTF_8),
+                "Merged partial reports should give the same report");
+    }
+
+    // 7th Test
+    @Test
+    void testBulkExport() throws IOException {
+        agent.load(tempDir.resolve("missing.txt").toString()); // falls back to sample data
+        List<RealEstate> portfolio = new ArrayList<>(agent.getProperties());
+        portfolio.add(new RealEstate(null, 100000, 40, 2, Genre.FARM));
+        PortfolioSnapshot snapshot = new PortfolioSnapshot(portfolio);
+        BulkExporter exporter = new BulkExporter();
+
+        Path csv = tempDir.resolve("portfolio.csv");
+        assertEquals(snapshot.size(), exporter.exportCsv(snapshot, csv));
+        List<String> rows = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertEquals(snapshot.size() + 1, rows.size(), "Header plus one row per listing");
+        assertEquals("type,city,genre,pricePerSqm,sqm,rooms,floor,insulated,totalPrice,avgSqmPerRoom,roomPrice",
+                rows.get(0));
+        RealEstate first = snapshot.listing(0);
+        boolean panel = first instanceof Panel;
+        String expected = String.join(",", panel ? "PANEL" : "REALESTATE", first.getCity(), first.getGenre().name(),
+                String.format(Locale.ROOT, "%.2f", first.getPrice()), String.valueOf(first.getSqm()),
+                String.format(Locale.ROOT, "%.2f", first.getNumberOfRooms()),
+                panel ? String.valueOf(((Panel) first).getFloor()) : "",
+                panel ? (((Panel) first).isInsulated() ? "1" : "0") : "",
+                String.valueOf(first.getTotalPrice()), String.format(Locale.ROOT, "%.2f", first.averageSqmPerRoom()),
+                String.valueOf(Math.round(first.getPrice() * first.getSqm() / first.getNumberOfRooms())));
+        assertEquals(expected, rows.get(1), "First row should hold the first listing's values");
+
+        Path columnar = tempDir.resolve("portfolio.col");
+        assertEquals(snapshot.size(), exporter.exportColumnar(snapshot, columnar));
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(columnar)).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] magic = new byte[4];
+        in.get(magic);
+        assertEquals("REXC", new String(magic, StandardCharsets.US_ASCII));
+        assertEquals(BulkExporter.FORMAT_VERSION, in.getInt());
+        assertEquals(11, in.getInt(), "Column count");
+        StringBuilder names = new StringBuilder();
+        StringBuilder types = new StringBuilder();
+        for (int c = 0; c < 11; c++) {
+            types.append(in.get());
+            byte[] name = new byte[in.getShort()];
+            in.get(name);
+            names.append(c == 0 ? "" : ",").append(new String(name, StandardCharsets.UTF_8));
+        }
+        assertEquals(rows.get(0), names.toString(), "Columnar and CSV columns match");
+        assertEquals("12132321232", types.toString(), "Column types (1 byte, 2 int, 3 double)");
+
+        int n = in.getInt();
+        assertEquals(snapshot.size(), n, "Sample data fits in one row group");
+        List<String> cities = new ArrayList<>();
+        for (int c = in.getInt(); c > 0; c--) {
+            int length = in.getInt();
+            if (length < 0) {
+                cities.add(null);
+            } else {
+                byte[] city = new byte[length];
+                in.get(city);
+                cities.add(new String(city, StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(snapshot.cityCount(), cities.size(), "One dictionary entry per city");
+        assertNull(cities.get(cities.size() - 1), "Null city is written with length -1");
+        for (int row = 0; row < n; row++) assertEquals(snapshot.isPanel(row) ? 1 : 0, in.get());
+        for (int row = 0; row < n; row++) assertEquals(snapshot.city(row), cities.get(in.getInt()));
+        for (int row = 0; row < n; row++) assertEquals(snapshot.genreOrdinal(row), in.get());
+        for (int row = 0; row < n; row++) assertEquals(snapshot.price(row), in.getDouble());
+        for (int row = 0; row < n; row++) assertEquals(snapshot.sqm(row), in.getInt());
+        for (int row = 0; row < n; row++) assertEquals(snapshot.rooms(row), in.getDouble());
+        for (int row = 0; row < n; row++) assertEquals(snapshot.floor(row), in.getInt());
+        for (int row = 0; row < n; row++) assertEquals(snapshot.isInsulated(row) ? 1 : 0, in.get());
+        for (int row = 0; row < n; row++) assertEquals(snapshot.totalPrice(row), in.getInt());
+        for (int row = 0; row < n; row++) assertEquals(snapshot.averageSqmPerRoom(row), in.getDouble());
+        for (int row = 0; row < n; row++) {
+            assertEquals(Math.round(snapshot.price(row) * snapshot.sqm(row) / snapshot.rooms(row)), in.getInt());
+        }
+        assertEquals(0, in.getInt(), "A zero-row group ends the file");
+        assertFalse(in.hasRemaining());
+
+        try (ListingIterator listings = new ListingIterator(tempDir.resolve("missing.txt").toString())) {
+            assertEquals(10, exporter.exportCsv(listings, tempDir.resolve("streamed.csv")), "All sample lines streamed");
+        }
+    }
+
+    // 8th Test
+    @Test
+    void testStreamedExportSkipsLinesTheParserRejects() throws IOException {
+        Path input = tempDir.resolve("input.txt");
+        Files.write(input, List.of(
+                "REALESTATE#Szeged#1.005#1#1#FARM",
+                "REALESTATE#Szeged#100000#50#2#FAM\u0130LYHOUSE",
+                "REALESTATE#Szeged#abc#50#2#FARM",
+                "REALESTATE#Szeged#100000#50#2#familyhouse"
+        ), StandardCharsets.UTF_8);
+
+        Path csv = tempDir.resolve("streamed.csv");
+        try (ListingIterator listings = new ListingIterator(input.toString())) {
+            assertEquals(2, new BulkExporter().exportCsv(listings, csv));
+            assertEquals(2, listings.getSkipped(), "Unknown genre and bad price are skipped, not thrown");
+        }
+        List<String> rows = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertEquals(String.format(Locale.ROOT, "%.2f", 1.005), rows.get(1).split(",")[3],
+                "Prices are rounded like the report's %.2f");
+    }
+}
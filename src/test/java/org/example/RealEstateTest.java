@@ -2,6 +2,9 @@ package org.example;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -65,4 +68,20 @@ public class RealEstateTest {
         assertTrue(text.contains("Total price"));
         assertTrue(text.contains("Average sqm per room"));
     }
+
+    // 6th Test
+    @Test
+    void testFindSameAmountUnderTest() {
+        // same total as panelEstate: Debrecen +20%, floor +5%, insulation +5%
+        Panel twin = new Panel("Debrecen", 150000, 60, 2, Genre.FAMILYHOUSE, 1, true);
+        RealEstate other = new RealEstate("Szeged", 150000, 60, 3, Genre.CONDOMINIUM);
+        EqualPriceIndex index = new EqualPriceIndex(new PortfolioSnapshot(List.of(panelEstate, twin, other, baseEstate)));
+
+        List<RealEstate> matches = panelEstate.findSameAmount(index);
+        assertEquals(1, matches.size(), "Only the twin should match");
+        assertSame(twin, matches.get(0));
+        assertTrue(panelEstate.hasSameAmount(matches.get(0)), "Index must agree with hasSameAmount");
+        assertEquals(1, index.groups().size(), "One equal-price group expected");
+        assertEquals(3, index.matchesWithin(panelEstate.getTotalPrice(), panelEstate.getTotalPrice()).size());
+    }
 }